@@ -0,0 +1,129 @@
+package com.playerroutes.bench;
+
+import com.playerroutes.network.FrameBroadcaster;
+import org.java_websocket.WebSocket;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcast cost on the sending thread as the number of local clients grows:
+ * per-connection {@code send(String)}, the library's {@code broadcast}, and {@link FrameBroadcaster}.
+ *
+ * Usage: ./gradlew bench -Pbench=BroadcastBenchmark
+ */
+public class BroadcastBenchmark {
+    private static final int[] CLIENT_COUNTS = {50, 100, 250, 500};
+    private static final int BROADCASTS = 2_000;
+    private static final int WARMUP_BROADCASTS = 500;
+
+    // Typical route_point message
+    private static final String MESSAGE = "{\"type\":\"route_point\",\"sessionId\":\"sess_lq3x9k2a_4f7h1\","
+            + "\"playerUuid\":\"069a79f4-44e9-4726-a5be-fca90e38aaf5\",\"playerName\":\"Notch\","
+            + "\"point\":{\"t\":1703700000000,\"x\":1234.56,\"y\":64.0,\"z\":-987.65,\"dim\":\"minecraft:overworld\"},"
+            + "\"worldTime\":6000,\"conn\":{\"online\":true,\"pingMs\":42}}";
+
+    private static final AtomicLong received = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 18765;
+        int maxClients = args.length > 1 ? Integer.parseInt(args[1]) : CLIENT_COUNTS[CLIENT_COUNTS.length - 1];
+
+        CountDownLatch started = new CountDownLatch(1);
+        WebSocketServer server = new WebSocketServer(new InetSocketAddress("127.0.0.1", port)) {
+            @Override public void onOpen(WebSocket conn, ClientHandshake handshake) {}
+            @Override public void onClose(WebSocket conn, int code, String reason, boolean remote) {}
+            @Override public void onMessage(WebSocket conn, String message) {}
+            @Override public void onError(WebSocket conn, Exception ex) {}
+            @Override public void onStart() { started.countDown(); }
+        };
+        server.setReuseAddr(true);
+        server.start();
+        started.await(10, TimeUnit.SECONDS);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        List<WebSocketClient> clients = new ArrayList<>();
+        System.out.printf("Message: %d bytes, %,d broadcasts per run%n", MESSAGE.length(), BROADCASTS);
+        System.out.printf("%8s %-10s %16s %16s %12s%n", "clients", "mode", "cpu ns/bcast", "cpu ns/client", "wall ms");
+
+        try {
+            for (int count : CLIENT_COUNTS) {
+                if (count > maxClients) break;
+                while (clients.size() < count) {
+                    WebSocketClient client = new CountingClient(new URI("ws://127.0.0.1:" + port));
+                    client.connectBlocking(10, TimeUnit.SECONDS);
+                    clients.add(client);
+                }
+                Collection<WebSocket> connections = new ArrayList<>(server.getConnections());
+
+                for (String mode : new String[]{"send", "library", "shared"}) {
+                    run(server, connections, mode, WARMUP_BROADCASTS);
+
+                    long cpu = threads.getCurrentThreadCpuTime();
+                    long wall = System.nanoTime();
+                    run(server, connections, mode, BROADCASTS);
+                    cpu = threads.getCurrentThreadCpuTime() - cpu;
+                    wall = System.nanoTime() - wall;
+
+                    System.out.printf("%8d %-10s %,16.0f %,16.1f %,12.1f%n", connections.size(), mode,
+                            (double) cpu / BROADCASTS, (double) cpu / BROADCASTS / connections.size(), wall / 1e6);
+                }
+            }
+        } finally {
+            for (WebSocketClient client : clients) {
+                client.close();
+            }
+            server.stop(1000);
+        }
+    }
+
+    /**
+     * Broadcasts and waits until every client has received every message, so runs don't overlap.
+     */
+    private static void run(WebSocketServer server, Collection<WebSocket> connections, String mode, int broadcasts)
+            throws InterruptedException {
+        long expected = received.get() + (long) broadcasts * connections.size();
+        for (int i = 0; i < broadcasts; i++) {
+            switch (mode) {
+                case "send" -> {
+                    for (WebSocket conn : connections) {
+                        conn.send(MESSAGE);
+                    }
+                }
+                case "library" -> server.broadcast(MESSAGE, connections);
+                default -> FrameBroadcaster.broadcast(server, MESSAGE, connections);
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (received.get() < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Clients received " + received.get() + " of " + expected);
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static class CountingClient extends WebSocketClient {
+        CountingClient(URI uri) {
+            super(uri);
+        }
+
+        @Override public void onOpen(ServerHandshake handshake) {}
+        @Override public void onMessage(String message) { received.incrementAndGet(); }
+        @Override public void onClose(int code, String reason, boolean remote) {}
+        @Override public void onError(Exception ex) {}
+    }
+}
@@ -0,0 +1,174 @@
+package com.playerroutes.bench;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.hub.HubServer;
+import com.playerroutes.network.HubLink;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a hub with several simulated game servers on this machine and one dashboard, and reports
+ * how many events reach the dashboard and how long they take. Each simulated server streams
+ * random walks through a real {@link HubLink}; every few seconds one of them drops its link to
+ * exercise reconnects.
+ *
+ * Usage: ./gradlew bench -Pbench=HubSimulation [--args="servers playersPerServer seconds"]
+ */
+public class HubSimulation {
+    private static final String TOKEN = "simulation";
+    private static final int POINTS_PER_SECOND = 2;
+
+    private static final AtomicLong receivedEvents = new AtomicLong();
+    private static final AtomicLong latencySumMs = new AtomicLong();
+    private static final AtomicLong latencySamples = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        int servers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 25;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int port = 18780;
+
+        HubServer hub = new HubServer(new InetSocketAddress("127.0.0.1", port), TOKEN, TOKEN, 5000);
+        hub.start();
+        Thread.sleep(500);
+
+        List<SimulatedServer> simulated = new ArrayList<>();
+        for (int i = 0; i < servers; i++) {
+            SimulatedServer server = new SimulatedServer("sim-" + (i + 1), players, port, new Random(i));
+            server.link.start();
+            simulated.add(server);
+        }
+
+        Dashboard dashboard = new Dashboard(new URI("ws://127.0.0.1:" + port + "/?token=" + TOKEN));
+        dashboard.connectBlocking(10, TimeUnit.SECONDS);
+
+        System.out.printf("%d servers x %d players, %d points/s each%n", servers, players, POINTS_PER_SECOND);
+        System.out.printf("%6s %8s %9s %12s %14s%n", "second", "servers", "sessions", "events/s", "avg latency ms");
+
+        long tickMs = 1000 / POINTS_PER_SECOND;
+        long start = System.currentTimeMillis();
+        long lastReport = start;
+        long lastReceived = 0;
+        try {
+            for (int tick = 0; System.currentTimeMillis() - start < seconds * 1000L; tick++) {
+                for (SimulatedServer server : simulated) {
+                    server.step();
+                }
+                // Every five seconds one server loses its link and has to reconnect and resend its state
+                if (tick > 0 && tick % (5 * POINTS_PER_SECOND) == 0) {
+                    simulated.get((tick / (5 * POINTS_PER_SECOND)) % servers).restartLink(port);
+                }
+                Thread.sleep(tickMs);
+
+                long now = System.currentTimeMillis();
+                if (now - lastReport >= 1000) {
+                    long received = receivedEvents.get();
+                    long samples = latencySamples.getAndSet(0);
+                    long latency = latencySumMs.getAndSet(0);
+                    System.out.printf("%6d %8d %9d %,12.0f %14.1f%n", (now - start) / 1000, hub.getServerCount(),
+                            hub.getSessionCount(), (received - lastReceived) * 1000.0 / (now - lastReport),
+                            samples > 0 ? (double) latency / samples : 0.0);
+                    lastReceived = received;
+                    lastReport = now;
+                }
+            }
+        } finally {
+            for (SimulatedServer server : simulated) {
+                server.link.stop();
+            }
+            dashboard.close();
+            hub.stop(1000);
+        }
+    }
+
+    private static class SimulatedServer {
+        final String id;
+        final Random random;
+        final List<PlayerSession> sessions = new ArrayList<>();
+        final double[] headings;
+        HubLink link;
+
+        SimulatedServer(String id, int players, int port, Random random) {
+            this.id = id;
+            this.random = random;
+            this.headings = new double[players];
+            for (int i = 0; i < players; i++) {
+                PlayerSession session = new PlayerSession("sess_" + id + "_" + i, UUID.randomUUID(), id + "-player" + i, 5000);
+                session.addPoint(new RoutePoint(System.currentTimeMillis(), random.nextInt(2000) - 1000, 64,
+                        random.nextInt(2000) - 1000, "minecraft:overworld"));
+                sessions.add(session);
+                headings[i] = random.nextDouble() * Math.PI * 2;
+            }
+            this.link = newLink(port);
+        }
+
+        HubLink newLink(int port) {
+            return new HubLink("ws://127.0.0.1:" + port + "/ingest", id, TOKEN, 500, () -> new ArrayList<>(sessions));
+        }
+
+        void restartLink(int port) {
+            link.stop();
+            link = newLink(port);
+            link.start();
+        }
+
+        void step() {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < sessions.size(); i++) {
+                PlayerSession session = sessions.get(i);
+                RoutePoint last = session.getLastPoint();
+                headings[i] += (random.nextDouble() - 0.5) * 0.5;
+                RoutePoint point = new RoutePoint(now, last.x() + Math.cos(headings[i]) * 4, 64,
+                        last.z() + Math.sin(headings[i]) * 4, last.dimension());
+                session.addPoint(point);
+
+                JsonObject message = new JsonObject();
+                message.addProperty("type", "route_point");
+                message.addProperty("sessionId", session.getSessionId());
+                message.addProperty("playerUuid", session.getPlayerUuid().toString());
+                message.addProperty("playerName", session.getPlayerName());
+                message.add("point", point.toJson());
+                link.offer(message);
+            }
+        }
+    }
+
+    private static class Dashboard extends WebSocketClient {
+        Dashboard(URI uri) {
+            super(uri);
+        }
+
+        @Override public void onOpen(ServerHandshake handshake) {}
+
+        @Override
+        public void onMessage(String message) {
+            JsonObject json = JsonParser.parseString(message).getAsJsonObject();
+            if (!"batch".equals(json.get("type").getAsString())) return;
+
+            long now = System.currentTimeMillis();
+            for (var element : json.getAsJsonArray("events")) {
+                JsonObject event = element.getAsJsonObject();
+                receivedEvents.incrementAndGet();
+                if (event.has("point")) {
+                    latencySumMs.addAndGet(now - event.getAsJsonObject("point").get("t").getAsLong());
+                    latencySamples.incrementAndGet();
+                }
+            }
+        }
+
+        @Override public void onClose(int code, String reason, boolean remote) {}
+        @Override public void onError(Exception ex) {}
+    }
+}
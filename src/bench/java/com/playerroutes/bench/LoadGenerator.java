@@ -0,0 +1,317 @@
+package com.playerroutes.bench;
+
+import com.playerroutes.network.WebSocketServer;
+import com.playerroutes.network.WebSocketSettings;
+import com.playerroutes.session.SamplingSettings;
+import com.playerroutes.session.SessionManager;
+import com.playerroutes.storage.AsyncStorageProvider;
+import com.playerroutes.storage.JsonStorageProvider;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * End-to-end load on this machine: synthetic players drive the real {@link SessionManager}
+ * sampling pipeline, and local clients connect to the real {@link WebSocketServer} with the
+ * bearer token. Every second it prints samples offered, points delivered to clients,
+ * capture-to-delivery latency percentiles (from the point's timestamp to its arrival at a
+ * client), GC activity and heap use.
+ *
+ * Patterns: walk, sprint, idle, teleport, or mixed (one of each in turn).
+ *
+ * Usage: ./gradlew bench -Pbench=LoadGenerator [--args="players clients seconds pattern batch"]
+ */
+public class LoadGenerator {
+    private static final String TOKEN = "loadgen";
+    private static final int TICK_MS = 50;
+    private static final int WARMUP_SECONDS = 5;
+    private static final String[] DIMENSIONS = {"minecraft:overworld", "minecraft:the_nether", "minecraft:the_end"};
+
+    private static final AtomicLong delivered = new AtomicLong();
+    private static final Histogram interval = new Histogram();
+    private static final Histogram total = new Histogram();
+
+    public static void main(String[] args) throws Exception {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        String pattern = args.length > 3 ? args[3] : "mixed";
+        boolean batch = args.length > 4 && Boolean.parseBoolean(args[4]);
+        int port = 18766;
+
+        Path dir = Files.createTempDirectory("playerroutes-loadgen");
+        AsyncStorageProvider storage = new AsyncStorageProvider(new JsonStorageProvider(dir.toString(), 1_000_000, 5000), 1024);
+        SamplingSettings sampling = new SamplingSettings(false, 250, 1, 5000, 250, 2.0);
+        SessionManager sessionManager = new SessionManager(storage, sampling, 5000, null);
+        WebSocketServer server = new WebSocketServer(
+                new WebSocketSettings(port, TOKEN, 500, 6, 1024, 10000, 256, 30000), sessionManager, null, null);
+        sessionManager.setWebSocketServer(server);
+        sessionManager.startStandalone();
+        server.start();
+        Thread.sleep(500);
+
+        List<Client> connected = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Client client = new Client(new URI("ws://127.0.0.1:" + port + "/"), batch);
+            if (client.connectBlocking(10, TimeUnit.SECONDS)) {
+                connected.add(client);
+            }
+        }
+
+        Random random = new Random(42);
+        List<SimulatedPlayer> simulated = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < players; i++) {
+            SimulatedPlayer player = new SimulatedPlayer(i, Pattern.of(pattern, i), random);
+            sessionManager.openSession(player.uuid, "loadgen" + i, start, player.x, player.y, player.z, player.dimension);
+            simulated.add(player);
+        }
+        sessionManager.flushSamples();
+
+        System.out.printf("%d players (%s), %d clients%s, %d ms sample interval%n", players, pattern,
+                connected.size(), batch ? " (batched)" : "", sampling.sampleIntervalMs());
+        System.out.printf("%6s %10s %12s %7s %7s %7s %6s %8s %8s %8s%n", "second", "samples/s", "delivered/s",
+                "p50 ms", "p95 ms", "p99 ms", "gcs", "gc ms", "heap MB", "pending");
+
+        int ticksPerSample = sampling.ticksPerSample();
+        long offered = 0;
+        long dropped = 0;
+        long lastOffered = 0;
+        long lastDelivered = 0;
+        long[] lastGc = gcTotals();
+        long lastReport = start;
+        try {
+            for (long tick = 0; System.currentTimeMillis() - start < seconds * 1000L; tick++) {
+                long tickStart = System.currentTimeMillis();
+                // Same phasing as the server tick: each player is read every ticksPerSample ticks
+                int bucket = (int) (tick % ticksPerSample);
+                for (SimulatedPlayer player : simulated) {
+                    player.move(TICK_MS / 1000.0);
+                    if (player.index % ticksPerSample != bucket) continue;
+                    if (sessionManager.offerSample(player.uuid, tickStart, player.x, player.y, player.z,
+                            player.dimension, 20 + player.index % 80, tick * 20)) {
+                        offered++;
+                    } else {
+                        dropped++;
+                    }
+                }
+                sessionManager.flushSamples();
+                if (tick % 100 == 0) {
+                    server.broadcastWorldTime((tick * 20) % 24000);
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastReport >= 1000) {
+                    long[] counts = interval.drain();
+                    long deliveredNow = delivered.get();
+                    long[] gc = gcTotals();
+                    double elapsed = (now - lastReport) / 1000.0;
+                    long heapMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024 * 1024);
+                    System.out.printf("%6d %,10.0f %,12.0f %7d %7d %7d %6d %8d %8d %8d%n", (now - start) / 1000,
+                            (offered - lastOffered) / elapsed, (deliveredNow - lastDelivered) / elapsed,
+                            Histogram.percentile(counts, 0.50), Histogram.percentile(counts, 0.95),
+                            Histogram.percentile(counts, 0.99), gc[0] - lastGc[0], gc[1] - lastGc[1], heapMb,
+                            server.getPendingBroadcastCount());
+                    if (now - start >= WARMUP_SECONDS * 1000L) {
+                        total.add(counts);
+                    }
+                    lastOffered = offered;
+                    lastDelivered = deliveredNow;
+                    lastGc = gc;
+                    lastReport = now;
+                }
+
+                long sleep = TICK_MS - (System.currentTimeMillis() - tickStart);
+                if (sleep > 0) {
+                    Thread.sleep(sleep);
+                }
+            }
+        } finally {
+            for (Client client : connected) {
+                client.close();
+            }
+            sessionManager.stop();
+            server.stop(1000);
+            storage.close();
+        }
+
+        long[] counts = total.drain();
+        System.out.printf("%nAfter %d s warmup: latency p50 %d ms, p95 %d ms, p99 %d ms, max %d ms%n", WARMUP_SECONDS,
+                Histogram.percentile(counts, 0.50), Histogram.percentile(counts, 0.95),
+                Histogram.percentile(counts, 0.99), Histogram.percentile(counts, 1.0));
+        System.out.printf("%-10s %10s %9s %9s %9s%n", "stage", "count", "p50 ms", "p99 ms", "max ms");
+        for (var stage : server.getPointLatency().snapshot().entrySet()) {
+            var snapshot = stage.getValue();
+            System.out.printf("%-10s %,10d %9.2f %9.2f %9.2f%n", stage.getKey(), snapshot.count(),
+                    snapshot.percentile(0.50) / 1000.0, snapshot.percentile(0.99) / 1000.0, snapshot.maxMicros() / 1000.0);
+        }
+        System.out.printf("Samples offered %,d, dropped by the ring %,d; points delivered %,d; slow clients disconnected %d%n",
+                offered, dropped, delivered.get(), server.getSlowClientDisconnects());
+        System.out.printf("Session files written to %s%n", dir);
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long timeMs = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            timeMs += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, timeMs};
+    }
+
+    private enum Pattern {
+        WALK(4.3), SPRINT(5.6), IDLE(0), TELEPORT(4.3);
+
+        final double speed;
+
+        Pattern(double speed) {
+            this.speed = speed;
+        }
+
+        static Pattern of(String name, int index) {
+            if ("mixed".equalsIgnoreCase(name)) {
+                return values()[index % values().length];
+            }
+            return valueOf(name.toUpperCase());
+        }
+    }
+
+    private static class SimulatedPlayer {
+        final int index;
+        final UUID uuid = UUID.randomUUID();
+        final Pattern pattern;
+        final Random random;
+        double x;
+        double y = 64;
+        double z;
+        double heading;
+        String dimension = DIMENSIONS[0];
+
+        SimulatedPlayer(int index, Pattern pattern, Random random) {
+            this.index = index;
+            this.pattern = pattern;
+            this.random = random;
+            this.x = random.nextInt(4000) - 2000;
+            this.z = random.nextInt(4000) - 2000;
+            this.heading = random.nextDouble() * Math.PI * 2;
+        }
+
+        void move(double seconds) {
+            heading += (random.nextDouble() - 0.5) * 0.3;
+            x += Math.cos(heading) * pattern.speed * seconds;
+            z += Math.sin(heading) * pattern.speed * seconds;
+            switch (pattern) {
+                case SPRINT -> y = 64 + Math.abs(Math.sin(x / 3)) * 1.2;
+                case IDLE -> heading += random.nextDouble(); // turning on the spot
+                case TELEPORT -> {
+                    // About once every ten seconds: a long jump, sometimes into another dimension
+                    if (random.nextInt(200) == 0) {
+                        x += random.nextInt(20000) - 10000;
+                        z += random.nextInt(20000) - 10000;
+                        if (random.nextInt(3) == 0) {
+                            dimension = DIMENSIONS[random.nextInt(DIMENSIONS.length)];
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts per millisecond of latency up to ten seconds; slower arrivals land in the last bucket.
+     */
+    private static class Histogram {
+        private static final int BUCKETS = 10_001;
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void record(long latencyMs) {
+            counts.incrementAndGet((int) Math.max(0, Math.min(BUCKETS - 1, latencyMs)));
+        }
+
+        void add(long[] other) {
+            for (int i = 0; i < BUCKETS; i++) {
+                if (other[i] != 0) {
+                    counts.addAndGet(i, other[i]);
+                }
+            }
+        }
+
+        long[] drain() {
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.getAndSet(i, 0);
+            }
+            return snapshot;
+        }
+
+        static long percentile(long[] counts, double quantile) {
+            long n = 0;
+            for (long c : counts) {
+                n += c;
+            }
+            if (n == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(n * quantile));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return i;
+            }
+            return counts.length - 1;
+        }
+    }
+
+    private static class Client extends WebSocketClient {
+        private static final String POINT_TIME = "\"point\":{\"t\":";
+        private final boolean batch;
+
+        Client(URI uri, boolean batch) {
+            super(uri, Map.of("Authorization", "Bearer " + TOKEN));
+            this.batch = batch;
+        }
+
+        @Override
+        public void onOpen(ServerHandshake handshake) {
+            if (batch) {
+                send("{\"type\":\"client_options\",\"batch\":true}");
+            }
+        }
+
+        @Override
+        public void onMessage(String message) {
+            // Route points arrive alone or inside batches; scanning for their timestamps keeps the
+            // clients cheap enough that they do not dominate the measurement
+            long now = System.currentTimeMillis();
+            int from = 0;
+            while ((from = message.indexOf(POINT_TIME, from)) >= 0) {
+                from += POINT_TIME.length();
+                int end = from;
+                while (end < message.length() && Character.isDigit(message.charAt(end))) {
+                    end++;
+                }
+                long latency = now - Long.parseLong(message, from, end, 10);
+                interval.record(latency);
+                delivered.incrementAndGet();
+                from = end;
+            }
+        }
+
+        @Override public void onClose(int code, String reason, boolean remote) {}
+        @Override public void onError(Exception ex) {}
+    }
+}
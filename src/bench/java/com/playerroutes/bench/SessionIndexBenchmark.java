@@ -0,0 +1,135 @@
+package com.playerroutes.bench;
+
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionStats;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.storage.SessionIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Compares {@link SessionIndex} against the stream-filter-sort scans it replaced,
+ * over one million synthetic sessions.
+ *
+ * Usage: ./gradlew bench -Pbench=SessionIndexBenchmark
+ */
+public class SessionIndexBenchmark {
+    private static final int SESSIONS = 1_000_000;
+    private static final int PLAYERS = 20_000;
+    private static final int PAGE = 50;
+    private static final long T0 = 1_700_000_000_000L;
+
+    public static void main(String[] args) {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : SESSIONS;
+        Random random = new Random(42);
+
+        UUID[] players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        List<SessionSummary> data = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            long start = T0 + (long) i * 30_000L + random.nextInt(30_000);
+            UUID player = players[random.nextInt(PLAYERS)];
+            data.add(new SessionSummary("sess_" + i, player, "Player" + i % PLAYERS, start, start + 600_000L,
+                    false, start + 600_000L, new SessionStats(100, 1000.0),
+                    new RoutePoint(start + 600_000L, 0, 64, 0, "minecraft:overworld"), 100));
+        }
+        long latest = T0 + (long) sessions * 30_000L;
+
+        System.out.printf("Sessions: %,d, players: %,d, page size: %d%n", sessions, PLAYERS, PAGE);
+
+        // Bulk load (startup) and incremental appends (live saves)
+        SessionIndex index = new SessionIndex();
+        long t = System.nanoTime();
+        index.load(data.subList(0, sessions - 100_000));
+        report("load " + (sessions - 100_000), System.nanoTime() - t, 1);
+
+        t = System.nanoTime();
+        for (SessionSummary summary : data.subList(sessions - 100_000, sessions)) {
+            index.put(summary);
+        }
+        report("put (append)", System.nanoTime() - t, 100_000);
+
+        t = System.nanoTime();
+        for (int i = 0; i < 100_000; i++) {
+            index.put(data.get(sessions - 1 - random.nextInt(1000)));
+        }
+        report("put (update)", System.nanoTime() - t, 100_000);
+
+        int iterations = 100_000;
+        long sink = 0;
+
+        // Warm-up
+        for (int i = 0; i < iterations; i++) {
+            sink += index.all(PAGE, random.nextInt(10_000)).size();
+            sink += index.byPlayer(players[random.nextInt(PLAYERS)], PAGE, 0).size();
+        }
+
+        t = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += index.all(PAGE, random.nextInt(sessions)).size();
+        }
+        report("index all(page, random offset)", System.nanoTime() - t, iterations);
+
+        t = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += index.byPlayer(players[random.nextInt(PLAYERS)], PAGE, random.nextInt(20)).size();
+        }
+        report("index byPlayer(page)", System.nanoTime() - t, iterations);
+
+        t = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            long from = T0 + (long) (random.nextDouble() * (latest - T0));
+            sink += index.byTimeRange(from, from + 86_400_000L, PAGE, random.nextInt(100)).size();
+        }
+        report("index byTimeRange(1 day, page)", System.nanoTime() - t, iterations);
+
+        t = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += index.countByPlayer(players[random.nextInt(PLAYERS)]) + index.size();
+        }
+        report("index counts", System.nanoTime() - t, iterations);
+
+        // Baseline: what JsonStorageProvider used to do per request
+        int scanIterations = 5;
+        t = System.nanoTime();
+        for (int i = 0; i < scanIterations; i++) {
+            sink += data.stream()
+                    .sorted((a, b) -> Long.compare(b.startedAt(), a.startedAt()))
+                    .skip(random.nextInt(sessions))
+                    .limit(PAGE)
+                    .collect(Collectors.toList()).size();
+        }
+        report("scan all(page)", System.nanoTime() - t, scanIterations);
+
+        t = System.nanoTime();
+        for (int i = 0; i < scanIterations; i++) {
+            UUID player = players[random.nextInt(PLAYERS)];
+            sink += data.stream()
+                    .filter(s -> s.playerUuid().equals(player))
+                    .sorted((a, b) -> Long.compare(b.startedAt(), a.startedAt()))
+                    .limit(PAGE)
+                    .collect(Collectors.toList()).size();
+        }
+        report("scan byPlayer(page)", System.nanoTime() - t, scanIterations);
+
+        t = System.nanoTime();
+        for (int i = 0; i < scanIterations; i++) {
+            UUID player = players[random.nextInt(PLAYERS)];
+            sink += data.stream().filter(s -> s.playerUuid().equals(player)).count();
+        }
+        report("scan countByPlayer", System.nanoTime() - t, scanIterations);
+
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static void report(String name, long nanos, int ops) {
+        System.out.printf("%-34s %,14.0f ns/op%n", name, (double) nanos / ops);
+    }
+}
@@ -0,0 +1,106 @@
+package com.playerroutes.bench;
+
+import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.network.WebSocketServer;
+import com.playerroutes.network.WebSocketSettings;
+import com.playerroutes.session.SamplingSettings;
+import com.playerroutes.session.SessionManager;
+import com.playerroutes.session.TracePlayer;
+import com.playerroutes.storage.AsyncStorageProvider;
+import com.playerroutes.storage.JsonStorageProvider;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Replays a movement trace recorded with {@code recordTrace = true} through the sampler, session
+ * manager, storage and broadcast path, then prints throughput and a digest of every stored point.
+ * The digest only depends on the trace and the sampling settings, so two runs of the same trace
+ * must print the same value; a change in it means the recorded routes changed.
+ *
+ * Usage: ./gradlew bench -Pbench=TraceReplay --args="trace.gz [speed] [fixed|adaptive]"
+ * (speed 0, the default, replays as fast as possible)
+ */
+public class TraceReplay {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: TraceReplay <trace file> [speed] [fixed|adaptive]");
+            System.exit(1);
+        }
+        Path trace = Paths.get(args[0]);
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        boolean adaptive = args.length > 2 && "adaptive".equalsIgnoreCase(args[2]);
+
+        // Config defaults, see ModConfig
+        SamplingSettings sampling = new SamplingSettings(adaptive, 2000, 2, 10000, 250, 3.0);
+        Path dir = Files.createTempDirectory("playerroutes-replay");
+        JsonStorageProvider json = new JsonStorageProvider(dir.toString(), 1_000_000, 5000);
+        AsyncStorageProvider storage = new AsyncStorageProvider(json, 256);
+        SessionManager sessionManager = new SessionManager(storage, sampling, 5000, null);
+        WebSocketServer server = new WebSocketServer(
+                new WebSocketSettings(18767, "replay", 500, 6, 1024, 10000, 256, 30000), sessionManager, null, null);
+        sessionManager.setWebSocketServer(server);
+        sessionManager.startStandalone();
+        server.start();
+
+        long start = System.nanoTime();
+        TracePlayer.Stats stats = new TracePlayer(sessionManager).play(trace, speed);
+        sessionManager.stop();
+        server.stop(1000);
+        storage.flush();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Trace %s: %,d sessions, %,d reads over %,d ticks, %.1f s of recorded time%n", trace,
+                stats.sessions(), stats.samples(), stats.ticks(), (stats.lastTime() - stats.firstTime()) / 1000.0);
+        System.out.printf("Replayed in %.2f s: %,.0f reads/s, %,d reads waited for the sampler%n",
+                seconds, stats.samples() / seconds, stats.retries());
+        digest(json);
+        storage.close();
+        System.out.printf("Sessions written to %s%n", dir);
+    }
+
+    /**
+     * FNV-1a over every stored point, sessions ordered by player and first point.
+     */
+    private static void digest(JsonStorageProvider json) {
+        List<PlayerSession> sessions = new ArrayList<>();
+        for (SessionSummary summary : json.getAllSessions((int) json.countSessions(), 0)) {
+            PlayerSession session = json.getSession(summary.sessionId());
+            if (session != null && !session.getPath().isEmpty()) {
+                sessions.add(session);
+            }
+        }
+        sessions.sort(Comparator.comparing(PlayerSession::getPlayerUuid)
+                .thenComparingLong(s -> s.getPath().get(0).timestamp()));
+
+        long hash = 0xcbf29ce484222325L;
+        long points = 0;
+        for (PlayerSession session : sessions) {
+            hash = mix(hash, session.getPlayerUuid().getMostSignificantBits());
+            hash = mix(hash, session.getPlayerUuid().getLeastSignificantBits());
+            for (RoutePoint point : session.getPath()) {
+                hash = mix(hash, point.timestamp());
+                hash = mix(hash, Double.doubleToLongBits(point.x()));
+                hash = mix(hash, Double.doubleToLongBits(point.y()));
+                hash = mix(hash, Double.doubleToLongBits(point.z()));
+                hash = mix(hash, point.dimension().hashCode());
+                points++;
+            }
+        }
+        System.out.printf("Stored %,d sessions with %,d points, digest %016x%n", sessions.size(), points, hash);
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -1,9 +1,20 @@
 package com.playerroutes;
 
 import com.playerroutes.config.ModConfig;
+import com.playerroutes.metrics.MetricsHttpServer;
+import com.playerroutes.metrics.MetricsRegistry;
+import com.playerroutes.network.HubLink;
 import com.playerroutes.network.WebSocketServer;
+import com.playerroutes.network.WebSocketSettings;
 import com.playerroutes.render.TileManager;
+import com.playerroutes.session.SamplingSettings;
 import com.playerroutes.session.SessionManager;
+import com.playerroutes.session.TraceRecorder;
+import com.playerroutes.storage.AsyncStorageProvider;
+import com.playerroutes.storage.CachingStorageProvider;
+import com.playerroutes.storage.JsonToSqlMigration;
+import com.playerroutes.storage.MeteredStorageProvider;
+import com.playerroutes.storage.SqlStorageProvider;
 import com.playerroutes.storage.StorageProvider;
 import com.playerroutes.storage.JsonStorageProvider;
 import net.neoforged.bus.api.IEventBus;
@@ -18,6 +29,12 @@ import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
 @Mod(PlayerRoutes.MODID)
 public class PlayerRoutes {
     public static final String MODID = "playerroutes";
@@ -27,7 +44,9 @@ public class PlayerRoutes {
     private StorageProvider storageProvider;
     private SessionManager sessionManager;
     private WebSocketServer webSocketServer;
+    private HubLink hubLink;
     private TileManager tileManager;
+    private MetricsHttpServer metricsServer;
 
     public PlayerRoutes(IEventBus modEventBus, ModContainer modContainer) {
         instance = this;
@@ -46,9 +65,11 @@ public class PlayerRoutes {
     public void onServerStarting(ServerStartingEvent event) {
         LOGGER.info("PlayerRoutes: Server starting, initializing components...");
 
-        // Initialize storage provider (JSON only for now)
-        storageProvider = new JsonStorageProvider(ModConfig.JSON_DIR.get());
-        LOGGER.info("Using JSON storage provider");
+        // Initialize storage provider, written behind on a background thread; list queries are
+        // cached below the write-behind queue so the cache is cleared when a save actually lands
+        StorageProvider metered = new MeteredStorageProvider(createStorageProvider());
+        StorageProvider cached = new CachingStorageProvider(metered, ModConfig.QUERY_CACHE_TTL_MS.get());
+        storageProvider = new AsyncStorageProvider(cached, ModConfig.SAVE_QUEUE_SIZE.get());
 
         // Initialize tile manager for map rendering
         tileManager = new TileManager(ModConfig.JSON_DIR.get(), event.getServer());
@@ -58,28 +79,88 @@ public class PlayerRoutes {
         // Initialize session manager
         sessionManager = new SessionManager(
                 storageProvider,
-                ModConfig.SAMPLE_INTERVAL_MS.get(),
-                ModConfig.MIN_MOVE_BLOCKS.get(),
+                SamplingSettings.fromConfig(),
+                ModConfig.MAX_POINTS_PER_SESSION.get(),
                 tileManager
         );
+        if (ModConfig.RECORD_TRACE.get()) {
+            String name = "trace-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".trace.gz";
+            try {
+                sessionManager.setTraceRecorder(TraceRecorder.create(Paths.get(ModConfig.JSON_DIR.get(), "traces", name)));
+            } catch (IOException e) {
+                LOGGER.error("Failed to start movement trace: {}", e.getMessage());
+            }
+        }
         sessionManager.start(event.getServer());
 
+        // Optionally stream live events to a hub that merges several servers
+        String hubUrl = ModConfig.HUB_URL.get();
+        if (!hubUrl.isEmpty()) {
+            hubLink = new HubLink(hubUrl, ModConfig.HUB_SERVER_ID.get(), ModConfig.HUB_TOKEN.get(),
+                    ModConfig.WS_BATCH_INTERVAL_MS.get(), sessionManager::getActiveSessions);
+            hubLink.start();
+        }
+
         // Initialize WebSocket server
-        int wsPort = ModConfig.WEBSOCKET_PORT.get();
-        String wsToken = ModConfig.WEBSOCKET_TOKEN.get();
-        webSocketServer = new WebSocketServer(wsPort, wsToken, sessionManager, event.getServer());
+        WebSocketSettings wsSettings = WebSocketSettings.fromConfig();
+        webSocketServer = new WebSocketServer(wsSettings, sessionManager, event.getServer(), hubLink);
+        sessionManager.setWebSocketServer(webSocketServer);
         try {
             webSocketServer.start();
-            LOGGER.info("WebSocket server started on port {}", wsPort);
+            LOGGER.info("WebSocket server started on port {}", wsSettings.port());
         } catch (Exception e) {
             LOGGER.error("Failed to start WebSocket server: {}", e.getMessage());
         }
+
+        if (ModConfig.METRICS_ENABLED.get()) {
+            MetricsRegistry registry = new MetricsRegistry();
+            sessionManager.registerMetrics(registry);
+            tileManager.registerMetrics(registry);
+            storageProvider.registerMetrics(registry);
+            webSocketServer.registerMetrics(registry);
+            metricsServer = new MetricsHttpServer(registry);
+            try {
+                metricsServer.start(ModConfig.METRICS_HOST.get(), ModConfig.METRICS_PORT.get());
+            } catch (IOException e) {
+                LOGGER.error("Failed to start metrics endpoint: {}", e.getMessage());
+                metricsServer = null;
+            }
+        }
+    }
+
+    private StorageProvider createStorageProvider() {
+        String jsonDir = ModConfig.JSON_DIR.get();
+
+        if ("sql".equalsIgnoreCase(ModConfig.STORAGE_PROVIDER.get())) {
+            try {
+                SqlStorageProvider sql = new SqlStorageProvider(
+                        Paths.get(ModConfig.SQL_FILE.get()),
+                        ModConfig.MAX_POINTS_PER_SESSION.get(),
+                        ModConfig.PATH_CACHE_MAX_POINTS.get()
+                );
+                // First start on SQL: import existing JSON sessions
+                if (sql.countSessions() == 0 && JsonToSqlMigration.hasJsonSessions(Paths.get(jsonDir))) {
+                    JsonToSqlMigration.migrate(Paths.get(jsonDir), sql);
+                }
+                LOGGER.info("Using SQL storage provider");
+                return sql;
+            } catch (SQLException e) {
+                LOGGER.error("Failed to open SQL storage, falling back to JSON: {}", e.getMessage());
+            }
+        }
+
+        LOGGER.info("Using JSON storage provider");
+        return new JsonStorageProvider(jsonDir, ModConfig.PATH_CACHE_MAX_POINTS.get(), ModConfig.MAX_POINTS_PER_SESSION.get());
     }
 
     @SubscribeEvent
     public void onServerStopping(ServerStoppingEvent event) {
         LOGGER.info("PlayerRoutes: Server stopping, cleaning up...");
 
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
+
         if (sessionManager != null) {
             sessionManager.stop();
         }
@@ -96,6 +177,10 @@ public class PlayerRoutes {
             }
         }
 
+        if (hubLink != null) {
+            hubLink.stop();
+        }
+
         if (storageProvider != null) {
             storageProvider.close();
         }
@@ -7,13 +7,37 @@ public class ModConfig {
     public static final ModConfigSpec.IntValue SAMPLE_INTERVAL_MS;
     public static final ModConfigSpec.IntValue MIN_MOVE_BLOCKS;
     public static final ModConfigSpec.IntValue MAX_IDLE_INTERVAL_MS;
+    public static final ModConfigSpec.ConfigValue<String> SAMPLING_MODE;
+    public static final ModConfigSpec.IntValue ADAPTIVE_SAMPLE_INTERVAL_MS;
+    public static final ModConfigSpec.DoubleValue ADAPTIVE_TOLERANCE_BLOCKS;
     public static final ModConfigSpec.ConfigValue<String> STORAGE_PROVIDER;
     public static final ModConfigSpec.ConfigValue<String> MONGO_URI;
     public static final ModConfigSpec.ConfigValue<String> JSON_DIR;
+    public static final ModConfigSpec.ConfigValue<String> SQL_FILE;
+    public static final ModConfigSpec.IntValue SAVE_QUEUE_SIZE;
+    public static final ModConfigSpec.IntValue PATH_CACHE_MAX_POINTS;
+    public static final ModConfigSpec.IntValue QUERY_CACHE_TTL_MS;
     public static final ModConfigSpec.IntValue WEBSOCKET_PORT;
     public static final ModConfigSpec.ConfigValue<String> WEBSOCKET_TOKEN;
     public static final ModConfigSpec.IntValue MAX_POINTS_PER_SESSION;
+    public static final ModConfigSpec.BooleanValue RECORD_TRACE;
     public static final ModConfigSpec.IntValue WS_BATCH_INTERVAL_MS;
+    public static final ModConfigSpec.BooleanValue WS_COMPRESSION;
+    public static final ModConfigSpec.IntValue WS_COMPRESSION_LEVEL;
+    public static final ModConfigSpec.IntValue WS_COMPRESSION_THRESHOLD;
+    public static final ModConfigSpec.IntValue WS_REPLAY_LOG_SIZE;
+    public static final ModConfigSpec.IntValue WS_CLIENT_QUEUE_LIMIT;
+    public static final ModConfigSpec.IntValue WS_SLOW_CLIENT_TIMEOUT_MS;
+
+    // Hub settings
+    public static final ModConfigSpec.ConfigValue<String> HUB_URL;
+    public static final ModConfigSpec.ConfigValue<String> HUB_SERVER_ID;
+    public static final ModConfigSpec.ConfigValue<String> HUB_TOKEN;
+
+    // Metrics settings
+    public static final ModConfigSpec.BooleanValue METRICS_ENABLED;
+    public static final ModConfigSpec.ConfigValue<String> METRICS_HOST;
+    public static final ModConfigSpec.IntValue METRICS_PORT;
 
     static {
         ModConfigSpec.Builder builder = new ModConfigSpec.Builder();
@@ -33,15 +57,32 @@ public class ModConfig {
                 .comment("Maximum time in ms without recording a point (even if player hasn't moved)")
                 .defineInRange("maxIdleIntervalMs", 10000, 5000, 60000);
 
+        SAMPLING_MODE = builder
+                .comment("Sampling mode: 'fixed' (record every minMoveBlocks) or 'adaptive' (record when the player",
+                        "leaves the path predicted from their last velocity and heading)")
+                .define("samplingMode", "fixed");
+
+        ADAPTIVE_SAMPLE_INTERVAL_MS = builder
+                .comment("Adaptive mode: interval in milliseconds between position reads (replaces sampleIntervalMs)")
+                .defineInRange("adaptiveSampleIntervalMs", 250, 50, 5000);
+
+        ADAPTIVE_TOLERANCE_BLOCKS = builder
+                .comment("Adaptive mode: how far in blocks the player may drift from the predicted path before a point is recorded")
+                .defineInRange("adaptiveToleranceBlocks", 3.0, 0.5, 50.0);
+
         MAX_POINTS_PER_SESSION = builder
                 .comment("Maximum points stored in memory per active session")
                 .defineInRange("maxPointsPerSession", 5000, 100, 50000);
 
+        RECORD_TRACE = builder
+                .comment("Record every raw position read to <jsonDir>/traces for offline replay (see README)")
+                .define("recordTrace", false);
+
         builder.pop();
         builder.push("storage");
 
         STORAGE_PROVIDER = builder
-                .comment("Storage provider: 'mongo' or 'json'")
+                .comment("Storage provider: 'json' or 'sql' (embedded H2 database file)")
                 .define("provider", "json");
 
         MONGO_URI = builder
@@ -52,6 +93,22 @@ public class ModConfig {
                 .comment("Directory for JSON storage (relative to server root)")
                 .define("jsonDir", "playerroutes-data");
 
+        SQL_FILE = builder
+                .comment("Database file for the 'sql' provider, without extension (relative to server root)")
+                .define("sqlFile", "playerroutes-data/sessions");
+
+        SAVE_QUEUE_SIZE = builder
+                .comment("Maximum sessions waiting to be written by the background storage thread")
+                .defineInRange("saveQueueSize", 256, 16, 4096);
+
+        PATH_CACHE_MAX_POINTS = builder
+                .comment("Maximum route points kept in memory for stored sessions loaded on demand")
+                .defineInRange("pathCacheMaxPoints", 500000, 10000, 50000000);
+
+        QUERY_CACHE_TTL_MS = builder
+                .comment("How long session list queries are cached, in ms (0 = no caching). Saves clear the cache")
+                .defineInRange("queryCacheTtlMs", 5000, 0, 300000);
+
         builder.pop();
         builder.push("websocket");
 
@@ -64,9 +121,63 @@ public class ModConfig {
                 .define("token", "change-me-in-production");
 
         WS_BATCH_INTERVAL_MS = builder
-                .comment("Interval for batching WebSocket updates")
+                .comment("Interval in ms between batch messages for clients that enable batching")
                 .defineInRange("batchIntervalMs", 500, 100, 2000);
 
+        WS_COMPRESSION = builder
+                .comment("Negotiate permessage-deflate with clients that support it")
+                .define("compression", true);
+
+        WS_COMPRESSION_LEVEL = builder
+                .comment("Deflate level, 1 (fastest) to 9 (smallest)")
+                .defineInRange("compressionLevel", 6, 1, 9);
+
+        WS_COMPRESSION_THRESHOLD = builder
+                .comment("Messages smaller than this many bytes are sent uncompressed")
+                .defineInRange("compressionThresholdBytes", 1024, 0, 1048576);
+
+        WS_REPLAY_LOG_SIZE = builder
+                .comment("Live events kept so reconnecting clients receive only what they missed (0 = always send init)")
+                .defineInRange("replayLogSize", 10000, 0, 1000000);
+
+        WS_CLIENT_QUEUE_LIMIT = builder
+                .comment("Messages a client may have waiting before position updates are conflated and time updates dropped")
+                .defineInRange("clientQueueLimit", 256, 16, 65536);
+
+        WS_SLOW_CLIENT_TIMEOUT_MS = builder
+                .comment("Disconnect a client that stays over its queue limit for this long")
+                .defineInRange("slowClientTimeoutMs", 30000, 1000, 600000);
+
+        builder.pop();
+        builder.push("hub");
+
+        HUB_URL = builder
+                .comment("Hub to stream live events to, e.g. ws://hub-host:8780/ingest (empty = no hub)")
+                .define("url", "");
+
+        HUB_SERVER_ID = builder
+                .comment("Name of this server on the hub; every event the hub forwards carries it")
+                .define("serverId", "server-1");
+
+        HUB_TOKEN = builder
+                .comment("Token the hub expects from game servers")
+                .define("token", "change-me-in-production");
+
+        builder.pop();
+        builder.push("metrics");
+
+        METRICS_ENABLED = builder
+                .comment("Serve Prometheus metrics over HTTP at /metrics")
+                .define("enabled", false);
+
+        METRICS_HOST = builder
+                .comment("Address the metrics endpoint binds to")
+                .define("host", "127.0.0.1");
+
+        METRICS_PORT = builder
+                .comment("Port of the metrics endpoint")
+                .defineInRange("port", 9465, 1024, 65535);
+
         builder.pop();
 
         SPEC = builder.build();
@@ -7,18 +7,24 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * A player's session. Mutated by the sampler thread and read by storage and network threads,
+ * so methods that touch the path are synchronized.
+ */
 public class PlayerSession {
     private final String sessionId;
     private final UUID playerUuid;
     private final String playerName;
     private final long startedAt;
-    private Long endedAt;
-    private boolean active;
-    private long lastSeenAt;
-    private int pingMs;
+    private volatile Long endedAt;
+    private volatile boolean active;
+    private volatile long lastSeenAt;
+    private volatile int pingMs;
     private final SessionStats stats;
     private final List<RoutePoint> path;
     private final int maxPoints;
+    // Bumped on every persisted-state change so storage can skip unchanged sessions
+    private volatile long version;
 
     public PlayerSession(String sessionId, UUID playerUuid, String playerName, int maxPoints) {
         this.sessionId = sessionId;
@@ -51,7 +57,7 @@ public class PlayerSession {
         this.maxPoints = maxPoints;
     }
 
-    public void addPoint(RoutePoint point) {
+    public synchronized void addPoint(RoutePoint point) {
         if (!path.isEmpty() && path.size() >= maxPoints) {
             // Remove oldest points to make room (keep last 80%)
             int toRemove = maxPoints / 5;
@@ -66,12 +72,39 @@ public class PlayerSession {
         path.add(point);
         stats.incrementSamples();
         lastSeenAt = point.timestamp();
+        version++;
     }
 
-    public void endSession() {
+    public synchronized void endSession() {
         this.active = false;
         this.endedAt = System.currentTimeMillis();
         this.lastSeenAt = this.endedAt;
+        version++;
+    }
+
+    /**
+     * Detached copy for handing to another thread; the path list is copied.
+     */
+    public synchronized PlayerSession snapshot() {
+        PlayerSession copy = new PlayerSession(sessionId, playerUuid, playerName, startedAt, endedAt,
+                active, lastSeenAt, new SessionStats(stats.getSamples(), stats.getDistanceXZ()), path, maxPoints);
+        copy.pingMs = pingMs;
+        copy.version = version;
+        return copy;
+    }
+
+    /**
+     * Like {@link #snapshot()}, but the path ends at {@code lastPoint}, leaving out points added
+     * after it. The path is empty when {@code lastPoint} is null or no longer in it.
+     */
+    public synchronized PlayerSession snapshotUpTo(RoutePoint lastPoint) {
+        int end = lastPoint == null ? -1 : path.lastIndexOf(lastPoint);
+        PlayerSession copy = new PlayerSession(sessionId, playerUuid, playerName, startedAt, endedAt,
+                active, lastSeenAt, new SessionStats(stats.getSamples(), stats.getDistanceXZ()),
+                path.subList(0, end + 1), maxPoints);
+        copy.pingMs = pingMs;
+        copy.version = version;
+        return copy;
     }
 
     public void updatePing(int pingMs) {
@@ -118,11 +151,15 @@ public class PlayerSession {
         return path;
     }
 
-    public RoutePoint getLastPoint() {
+    public long getVersion() {
+        return version;
+    }
+
+    public synchronized RoutePoint getLastPoint() {
         return path.isEmpty() ? null : path.get(path.size() - 1);
     }
 
-    public JsonObject toJson() {
+    public synchronized JsonObject toJson() {
         JsonObject json = new JsonObject();
         json.addProperty("_id", sessionId);
         json.addProperty("playerUuid", playerUuid.toString());
@@ -144,7 +181,7 @@ public class PlayerSession {
         return json;
     }
 
-    public JsonObject toSummaryJson() {
+    public synchronized JsonObject toSummaryJson() {
         JsonObject json = new JsonObject();
         json.addProperty("sessionId", sessionId);
         json.addProperty("playerUuid", playerUuid.toString());
@@ -0,0 +1,116 @@
+package com.playerroutes.data;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Path-less view of a session, small enough to keep resident for every stored session.
+ */
+public record SessionSummary(
+        String sessionId,
+        UUID playerUuid,
+        String playerName,
+        long startedAt,
+        Long endedAt,
+        boolean active,
+        long lastSeenAt,
+        SessionStats stats,
+        RoutePoint lastPoint,
+        int pointCount
+) {
+    public static SessionSummary of(PlayerSession session) {
+        SessionStats stats = session.getStats();
+        return new SessionSummary(
+                session.getSessionId(),
+                session.getPlayerUuid(),
+                session.getPlayerName(),
+                session.getStartedAt(),
+                session.getEndedAt(),
+                session.isActive(),
+                session.getLastSeenAt(),
+                new SessionStats(stats.getSamples(), stats.getDistanceXZ()),
+                session.getLastPoint(),
+                session.getPath().size()
+        );
+    }
+
+    public JsonObject toSummaryJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("sessionId", sessionId);
+        json.addProperty("playerUuid", playerUuid.toString());
+        json.addProperty("playerName", playerName);
+        json.addProperty("startedAt", startedAt);
+        if (endedAt != null) {
+            json.addProperty("endedAt", endedAt);
+        }
+        json.addProperty("active", active);
+        json.addProperty("lastSeenAt", lastSeenAt);
+        json.add("stats", stats.toJson());
+
+        if (lastPoint != null) {
+            json.add("lastPoint", lastPoint.toJson());
+        }
+        json.addProperty("points", pointCount);
+
+        return json;
+    }
+
+    /**
+     * Reads a session document written by {@link PlayerSession#toJson()} without
+     * materializing its path: only the last point and the point count are kept.
+     */
+    public static SessionSummary fromJsonStream(JsonReader reader) throws IOException {
+        String sessionId = null;
+        UUID playerUuid = null;
+        String playerName = null;
+        long startedAt = 0;
+        Long endedAt = null;
+        boolean active = false;
+        long lastSeenAt = 0;
+        SessionStats stats = new SessionStats();
+        JsonObject lastPointJson = null;
+        int pointCount = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "_id" -> sessionId = reader.nextString();
+                case "playerUuid" -> playerUuid = UUID.fromString(reader.nextString());
+                case "playerName" -> playerName = reader.nextString();
+                case "startedAt" -> startedAt = reader.nextLong();
+                case "endedAt" -> endedAt = reader.nextLong();
+                case "active" -> active = reader.nextBoolean();
+                case "lastSeenAt" -> lastSeenAt = reader.nextLong();
+                case "stats" -> stats = SessionStats.fromJson(JsonParser.parseReader(reader).getAsJsonObject());
+                case "path" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        lastPointJson = JsonParser.parseReader(reader).getAsJsonObject();
+                        pointCount++;
+                    }
+                    reader.endArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (sessionId == null || playerUuid == null || playerName == null) {
+            throw new IOException("Session document is missing _id, playerUuid or playerName");
+        }
+
+        RoutePoint lastPoint = lastPointJson != null ? RoutePoint.fromJson(lastPointJson) : null;
+        return new SessionSummary(sessionId, playerUuid, playerName, startedAt, endedAt,
+                active, lastSeenAt, stats, lastPoint, pointCount);
+    }
+}
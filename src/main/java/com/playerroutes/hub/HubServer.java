@@ -0,0 +1,271 @@
+package com.playerroutes.hub;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.playerroutes.network.OutboundQueue;
+import com.playerroutes.network.SharedMessage;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Standalone process that merges the live feeds of several game servers into one endpoint.
+ *
+ * Game servers connect to {@code /ingest?serverId=...&token=...} through their {@code HubLink}.
+ * Dashboards connect to {@code /?token=...} and speak the usual protocol: they receive an
+ * {@code init} with the sessions of every server, then {@code batch} messages whose events
+ * carry a {@code serverId}, plus {@code server_state} and {@code server_offline} when a game
+ * server connects or goes away. The hub needs no game classes and runs as a plain Java process.
+ *
+ * Each dashboard gets an {@link OutboundQueue} like a game server's clients, so a dashboard that
+ * stops reading is disconnected instead of growing its socket's write queue without bound.
+ */
+public class HubServer extends WebSocketServer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HubServer.class);
+    private static final String INGEST_PATH = "/ingest";
+    // Same defaults as a game server's [websocket] clientQueueLimit and slowClientTimeoutMs
+    private static final int DASHBOARD_QUEUE_LIMIT = 256;
+    private static final long SLOW_DASHBOARD_TIMEOUT_MS = 30000;
+    private static final int DRAIN_INTERVAL_MS = 100;
+
+    private final String dashboardToken;
+    private final String serverToken;
+    // Guards the state and dashboard registration, so a new dashboard's init and the live feed never overlap
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final HubState state;
+    private final Map<WebSocket, OutboundQueue> dashboards = new ConcurrentHashMap<>();
+    private final Map<WebSocket, String> serverConnections = new ConcurrentHashMap<>();
+    private final Map<String, WebSocket> serversById = new ConcurrentHashMap<>();
+    private ScheduledExecutorService drainScheduler;
+
+    public HubServer(InetSocketAddress address, String dashboardToken, String serverToken, int maxPointsPerSession) {
+        super(address);
+        this.dashboardToken = dashboardToken;
+        this.serverToken = serverToken;
+        this.state = new HubState(maxPointsPerSession);
+        setReuseAddr(true);
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        String resource = handshake.getResourceDescriptor();
+        String token = queryParam(resource, "token");
+
+        if (resource.startsWith(INGEST_PATH)) {
+            String serverId = queryParam(resource, "serverId");
+            if (!serverToken.equals(token) || serverId == null || serverId.isEmpty()) {
+                LOGGER.warn("Game server rejected: {}", conn.getRemoteSocketAddress());
+                conn.close(4001, "Invalid authentication token");
+                return;
+            }
+            WebSocket previous = serversById.put(serverId, conn);
+            serverConnections.put(conn, serverId);
+            if (previous != null) {
+                previous.close(4003, "Replaced by a new connection");
+            }
+            LOGGER.info("Game server '{}' connected from {}", serverId, conn.getRemoteSocketAddress());
+            return;
+        }
+
+        if (!dashboardToken.equals(token)) {
+            LOGGER.warn("Dashboard rejected (invalid token): {}", conn.getRemoteSocketAddress());
+            conn.close(4001, "Invalid authentication token");
+            return;
+        }
+        stateLock.lock();
+        try {
+            OutboundQueue queue = new OutboundQueue(this, conn, DASHBOARD_QUEUE_LIMIT, SLOW_DASHBOARD_TIMEOUT_MS);
+            dashboards.put(conn, queue);
+            queue.offer(SharedMessage.text(state.initMessage().toString()), OutboundQueue.Kind.RELIABLE, null);
+        } finally {
+            stateLock.unlock();
+        }
+        LOGGER.info("Dashboard connected: {}", conn.getRemoteSocketAddress());
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        dashboards.remove(conn);
+        String serverId = serverConnections.remove(conn);
+        // A replaced connection closing must not take its successor offline
+        if (serverId != null && serversById.remove(serverId, conn)) {
+            LOGGER.info("Game server '{}' disconnected (code: {}, reason: {})", serverId, code, reason);
+            JsonObject message = new JsonObject();
+            message.addProperty("type", "server_offline");
+            message.addProperty("serverId", serverId);
+
+            stateLock.lock();
+            try {
+                state.setOffline(serverId);
+                broadcast(message);
+            } finally {
+                stateLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        String serverId = serverConnections.get(conn);
+        if (serverId == null) {
+            // Dashboard requests such as teleport need a game server; the hub only relays the feed
+            return;
+        }
+
+        try {
+            JsonObject json = JsonParser.parseString(message).getAsJsonObject();
+            String type = json.has("type") ? json.get("type").getAsString() : "";
+            switch (type) {
+                case "hub_hello" -> onHello(serverId, json);
+                case "hub_batch" -> onBatch(serverId, json.getAsJsonArray("events"));
+                default -> LOGGER.warn("Unknown message type from game server '{}': {}", serverId, type);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to handle message from game server '{}': {}", serverId, e.getMessage(), e);
+        }
+    }
+
+    private void onHello(String serverId, JsonObject hello) {
+        stateLock.lock();
+        try {
+            JsonObject message = state.reset(serverId, hello.getAsJsonArray("activeSessions"));
+            broadcast(message);
+            LOGGER.info("Game server '{}' announced {} active sessions", serverId, message.getAsJsonArray("activeSessions").size());
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void onBatch(String serverId, JsonArray events) {
+        stateLock.lock();
+        try {
+            JsonArray forwarded = new JsonArray();
+            for (JsonElement element : events) {
+                JsonObject event = element.getAsJsonObject();
+                if (state.apply(serverId, event)) {
+                    forwarded.add(event);
+                }
+            }
+            if (forwarded.isEmpty() || dashboards.isEmpty()) return;
+
+            // One message per game server batch, framed once for every dashboard
+            JsonObject batch = new JsonObject();
+            batch.addProperty("type", "batch");
+            batch.add("events", forwarded);
+            broadcast(batch);
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Offers a message to every dashboard's queue, framed once for all of them. Callers hold the state lock.
+     */
+    private void broadcast(JsonObject message) {
+        SharedMessage shared = SharedMessage.text(message.toString());
+        for (OutboundQueue queue : dashboards.values()) {
+            queue.offer(shared, OutboundQueue.Kind.RELIABLE, null);
+        }
+    }
+
+    /**
+     * Hands held messages to dashboards whose sockets have drained and disconnects the ones that
+     * stayed congested too long.
+     */
+    private void drainDashboards() {
+        try {
+            for (OutboundQueue queue : dashboards.values()) {
+                queue.drain();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to drain dashboard queues: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        LOGGER.error("Hub WebSocket error: {}", ex.getMessage());
+    }
+
+    @Override
+    public void onStart() {
+        drainScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "PlayerRoutes-HubDrain");
+            t.setDaemon(true);
+            return t;
+        });
+        drainScheduler.scheduleAtFixedRate(this::drainDashboards, DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+        LOGGER.info("PlayerRoutes hub listening on port {}", getPort());
+    }
+
+    @Override
+    public void stop(int timeout) throws InterruptedException {
+        if (drainScheduler != null) {
+            drainScheduler.shutdown();
+            drainScheduler.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        }
+        super.stop(timeout);
+    }
+
+    public int getDashboardCount() {
+        return dashboards.size();
+    }
+
+    public int getServerCount() {
+        return serversById.size();
+    }
+
+    public int getSessionCount() {
+        stateLock.lock();
+        try {
+            return state.sessionCount();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private static String queryParam(String resource, String name) {
+        int query = resource.indexOf('?');
+        if (query < 0) return null;
+        for (String pair : resource.substring(query + 1).split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return URLDecoder.decode(pair.substring(name.length() + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * java ... com.playerroutes.hub.HubServer [port] [dashboardToken] [serverToken] [maxPointsPerSession]
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8780;
+        String dashboardToken = args.length > 1 ? args[1] : "change-me-in-production";
+        String serverToken = args.length > 2 ? args[2] : dashboardToken;
+        int maxPoints = args.length > 3 ? Integer.parseInt(args[3]) : 5000;
+
+        HubServer hub = new HubServer(new InetSocketAddress(port), dashboardToken, serverToken, maxPoints);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                hub.stop(1000);
+            } catch (InterruptedException ignored) {
+            }
+        }, "PlayerRoutes-HubShutdown"));
+        hub.start();
+    }
+}
@@ -0,0 +1,182 @@
+package com.playerroutes.hub;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What the hub knows about each game server: whether it is connected, its world time and its
+ * active sessions with their recent paths. Not thread-safe; {@link HubServer} guards it.
+ */
+class HubState {
+    private final int maxPointsPerSession;
+    private final Map<String, GameServer> servers = new LinkedHashMap<>();
+
+    HubState(int maxPointsPerSession) {
+        this.maxPointsPerSession = maxPointsPerSession;
+    }
+
+    /**
+     * Replaces a server's sessions with the ones it announced on connecting.
+     *
+     * @return the {@code server_state} message for dashboards
+     */
+    JsonObject reset(String serverId, JsonArray activeSessions) {
+        GameServer server = servers.computeIfAbsent(serverId, GameServer::new);
+        server.online = true;
+        server.sessions.clear();
+        for (JsonElement element : activeSessions) {
+            HubSession session = HubSession.of(element.getAsJsonObject(), maxPointsPerSession);
+            server.sessions.put(session.id, session);
+        }
+
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "server_state");
+        message.addProperty("serverId", serverId);
+        message.add("activeSessions", server.sessionsJson());
+        return message;
+    }
+
+    void setOffline(String serverId) {
+        GameServer server = servers.get(serverId);
+        if (server != null) {
+            server.online = false;
+        }
+    }
+
+    /**
+     * Applies a live event from a server and tags it with the server id.
+     *
+     * @return false if the event is already reflected in the state and should not be forwarded
+     */
+    boolean apply(String serverId, JsonObject event) {
+        GameServer server = servers.computeIfAbsent(serverId, GameServer::new);
+        event.addProperty("serverId", serverId);
+        String type = event.has("type") ? event.get("type").getAsString() : "";
+
+        switch (type) {
+            case "session_start" -> {
+                HubSession session = HubSession.of(event.getAsJsonObject("session"), maxPointsPerSession);
+                server.sessions.put(session.id, session);
+            }
+            case "session_end" -> server.sessions.remove(event.get("sessionId").getAsString());
+            case "route_point" -> {
+                HubSession session = server.sessions.get(event.get("sessionId").getAsString());
+                // Points that were already part of the hello snapshot arrive again after a reconnect
+                if (session != null && !session.append(event.getAsJsonObject("point"))) {
+                    return false;
+                }
+            }
+            case "time_update" -> server.worldTime = event.get("worldTime").getAsLong();
+            default -> {
+            }
+        }
+        return true;
+    }
+
+    JsonObject initMessage() {
+        JsonArray serverList = new JsonArray();
+        JsonArray sessions = new JsonArray();
+        for (GameServer server : servers.values()) {
+            JsonObject json = new JsonObject();
+            json.addProperty("serverId", server.id);
+            json.addProperty("online", server.online);
+            if (server.worldTime != null) {
+                json.addProperty("worldTime", server.worldTime);
+            }
+            serverList.add(json);
+            sessions.addAll(server.sessionsJson());
+        }
+
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "init");
+        message.addProperty("hub", true);
+        message.add("servers", serverList);
+        message.add("activeSessions", sessions);
+        return message;
+    }
+
+    int sessionCount() {
+        int count = 0;
+        for (GameServer server : servers.values()) {
+            count += server.sessions.size();
+        }
+        return count;
+    }
+
+    private static class GameServer {
+        final String id;
+        final Map<String, HubSession> sessions = new LinkedHashMap<>();
+        boolean online;
+        Long worldTime;
+
+        GameServer(String id) {
+            this.id = id;
+        }
+
+        JsonArray sessionsJson() {
+            JsonArray array = new JsonArray();
+            for (HubSession session : sessions.values()) {
+                JsonObject json = session.toJson();
+                json.addProperty("serverId", id);
+                array.add(json);
+            }
+            return array;
+        }
+    }
+
+    /**
+     * A session as announced by its server, with the newest points kept separately so route
+     * points can be appended without rebuilding the document.
+     */
+    private static class HubSession {
+        final String id;
+        final JsonObject header;
+        final ArrayDeque<JsonObject> path = new ArrayDeque<>();
+        final int maxPoints;
+        long lastTime = Long.MIN_VALUE;
+
+        private HubSession(String id, JsonObject header, int maxPoints) {
+            this.id = id;
+            this.header = header;
+            this.maxPoints = maxPoints;
+        }
+
+        static HubSession of(JsonObject json, int maxPoints) {
+            JsonObject header = json.deepCopy();
+            JsonArray points = header.has("path") ? header.remove("path").getAsJsonArray() : new JsonArray();
+            HubSession session = new HubSession(header.get("_id").getAsString(), header, maxPoints);
+            for (JsonElement point : points) {
+                session.append(point.getAsJsonObject());
+            }
+            return session;
+        }
+
+        boolean append(JsonObject point) {
+            long t = point.get("t").getAsLong();
+            if (t <= lastTime) {
+                return false;
+            }
+            lastTime = t;
+            path.addLast(point);
+            if (path.size() > maxPoints) {
+                path.removeFirst();
+            }
+            return true;
+        }
+
+        JsonObject toJson() {
+            JsonObject json = header.deepCopy();
+            JsonArray points = new JsonArray();
+            for (JsonObject point : path) {
+                points.add(point);
+            }
+            json.add("path", points);
+            return json;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.playerroutes.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One live event message framed and offered to the outbound queues of its clients.
+ */
+@Name("playerroutes.Broadcast")
+@Label("Broadcast")
+@Category("PlayerRoutes")
+@Description("Live event message fanned out to WebSocket clients")
+@StackTrace(false)
+public final class BroadcastEvent extends jdk.jfr.Event {
+    @Label("Delivery")
+    @Description("RELIABLE, CONFLATABLE or DROPPABLE")
+    public String kind;
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Clients")
+    public int clients;
+
+    @Label("Payload Size")
+    @DataAmount
+    public int payloadBytes;
+}
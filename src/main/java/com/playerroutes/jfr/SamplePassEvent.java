@@ -0,0 +1,27 @@
+package com.playerroutes.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * PlayerRoutes' work in one server tick: queueing tiles and reading positions for the sampler.
+ */
+@Name("playerroutes.SamplePass")
+@Label("Sample Pass")
+@Category("PlayerRoutes")
+@Description("Position sampling in onServerTick")
+@StackTrace(false)
+public final class SamplePassEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    public long tick;
+
+    @Label("Tracked Players")
+    public int trackedPlayers;
+
+    @Label("Sampled Players")
+    @Description("Players of this tick's bucket whose position was read")
+    public int sampledPlayers;
+}
@@ -0,0 +1,34 @@
+package com.playerroutes.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A session handed to storage. The {@code queue} stage runs on the caller's thread and includes
+ * any wait for the write-behind queue to make room; {@code write} is the provider's actual save.
+ */
+@Name("playerroutes.SessionSave")
+@Label("Session Save")
+@Category("PlayerRoutes")
+@Description("Session copied and queued for storage, or written by the storage thread")
+@StackTrace(false)
+public final class SessionSaveEvent extends jdk.jfr.Event {
+    public static final String QUEUE = "queue";
+    public static final String WRITE = "write";
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Points")
+    public int points;
+
+    @Label("Coalesced")
+    @Description("Replaced a save of the same session that was still queued")
+    public boolean coalesced;
+}
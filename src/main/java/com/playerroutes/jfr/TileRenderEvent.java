@@ -0,0 +1,50 @@
+package com.playerroutes.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One map tile rendered on the server thread. The phases add up to roughly the event's duration.
+ */
+@Name("playerroutes.TileRender")
+@Label("Tile Render")
+@Category({"PlayerRoutes", "Map"})
+@Description("Chunk rendered to a map tile inside server.execute")
+@StackTrace(false)
+public final class TileRenderEvent extends jdk.jfr.Event {
+    @Label("Dimension")
+    public String dimension;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Chunk Load")
+    @Description("Getting the chunk, loading or generating it if needed")
+    @Timespan
+    public long loadTime;
+
+    @Label("Heights")
+    @Description("Reading surface heights for hillshading")
+    @Timespan
+    public long heightTime;
+
+    @Label("Colors")
+    @Description("Block lookups and coloring of every pixel")
+    @Timespan
+    public long colorTime;
+
+    @Label("PNG Write")
+    @Description("Encoding the image and writing the file")
+    @Timespan
+    public long writeTime;
+
+    @Label("Success")
+    public boolean success;
+}
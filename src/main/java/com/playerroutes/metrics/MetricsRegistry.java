@@ -0,0 +1,116 @@
+package com.playerroutes.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics of all subsystems, rendered in the Prometheus text format.
+ *
+ * The registry holds no values itself. Subsystems keep their own {@code LongAdder} counters and
+ * {@link LatencyHistogram}s, which update without locks or allocation. They register read
+ * functions here, and the functions only run when the metrics are scraped.
+ */
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * A monotonically increasing count. Prometheus convention is a {@code _total} suffix.
+     */
+    public void counter(String name, String help, LongSupplier value) {
+        counter(name, help, "", value);
+    }
+
+    /**
+     * @param labels label pairs as written in the output, e.g. {@code stage="record"}
+     */
+    public void counter(String name, String help, String labels, LongSupplier value) {
+        add(name, help, "counter", out -> sample(out, name, labels, value.getAsLong()));
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value) {
+        gauge(name, help, "", value);
+    }
+
+    public void gauge(String name, String help, String labels, DoubleSupplier value) {
+        add(name, help, "gauge", out -> sample(out, name, labels, value.getAsDouble()));
+    }
+
+    /**
+     * Exports a histogram as a summary in seconds, with its 50th to 99.9th percentiles.
+     */
+    public void summary(String name, String help, LatencyHistogram histogram) {
+        summary(name, help, "", histogram);
+    }
+
+    public void summary(String name, String help, String labels, LatencyHistogram histogram) {
+        add(name, help, "summary", out -> {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            String separator = labels.isEmpty() ? "" : labels + ",";
+            for (double quantile : QUANTILES) {
+                sample(out, name, separator + "quantile=\"" + quantile + "\"", snapshot.percentile(quantile) / 1e6);
+            }
+            sample(out, name + "_sum", labels, snapshot.sumMicros() / 1e6);
+            sample(out, name + "_count", labels, snapshot.count());
+        });
+    }
+
+    private synchronized void add(String name, String help, String type, Series series) {
+        Family family = families.computeIfAbsent(name, n -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type);
+        }
+        family.series.add(series);
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format.
+     */
+    public synchronized String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            Family family = entry.getValue();
+            out.append("# HELP ").append(entry.getKey()).append(' ')
+                    .append(family.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(entry.getKey()).append(' ').append(family.type).append('\n');
+            for (Series series : family.series) {
+                series.write(out);
+            }
+        }
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private interface Series {
+        void write(StringBuilder out);
+    }
+
+    private static class Family {
+        final String help;
+        final String type;
+        final List<Series> series = new ArrayList<>();
+
+        Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
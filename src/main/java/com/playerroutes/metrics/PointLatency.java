@@ -0,0 +1,33 @@
+package com.playerroutes.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * How stale a route point is at each stage on its way to a dashboard. All stages are measured
+ * on the monotonic clock except {@code client}, which compares the point's capture time with
+ * the receive time a client reports in {@code latency_ack}, so it includes clock skew between
+ * the two machines.
+ */
+public class PointLatency {
+    /** Read on the server thread until added to the session on the sampler thread. */
+    public final LatencyHistogram record = new LatencyHistogram();
+    /** Added to the session until serialized on the broadcaster thread. */
+    public final LatencyHistogram serialize = new LatencyHistogram();
+    /** Serialized until handed to a client's socket, once per client. */
+    public final LatencyHistogram write = new LatencyHistogram();
+    /** Read on the server thread until handed to a client's socket, once per client. */
+    public final LatencyHistogram total = new LatencyHistogram();
+    /** Capture until received, as reported by clients. */
+    public final LatencyHistogram client = new LatencyHistogram();
+
+    public Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> stages = new LinkedHashMap<>();
+        stages.put("record", record.snapshot());
+        stages.put("serialize", serialize.snapshot());
+        stages.put("write", write.snapshot());
+        stages.put("total", total.snapshot());
+        stages.put("client", client.snapshot());
+        return stages;
+    }
+}
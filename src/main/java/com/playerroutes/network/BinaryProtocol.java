@@ -0,0 +1,145 @@
+package com.playerroutes.network;
+
+import com.google.gson.JsonObject;
+import com.playerroutes.data.RoutePoint;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encoder for the optional {@code playerroutes.bin.v1} subprotocol.
+ *
+ * Rare messages (init, session_start, session_end, responses) stay JSON text, with a numeric
+ * {@code handle} added to each session. High-rate updates are binary frames that start with a
+ * one-byte tag. Integers are unsigned LEB128 varints; signed values are zigzag-encoded first
+ * and coordinates are sent in tenths of a block.
+ *
+ * <pre>
+ * ROUTE_POINT (1): seq, handle, t - session startedAt (ms), x, y, z (signed), dimension id, ping ms, world time, flags (bit 0 online)
+ * TIME_UPDATE (2): seq, world time
+ * DIMENSION   (3): dimension id, name length, UTF-8 name (sent before the first point that uses it)
+ * </pre>
+ */
+final class BinaryProtocol {
+    static final String NAME = "playerroutes.bin.v1";
+
+    static final byte TAG_ROUTE_POINT = 1;
+    static final byte TAG_TIME_UPDATE = 2;
+    static final byte TAG_DIMENSION = 3;
+
+    private final Map<String, Integer> sessionHandles = new ConcurrentHashMap<>();
+    private final AtomicInteger nextHandle = new AtomicInteger(1);
+    private final Map<String, Integer> dimensionIds = new ConcurrentHashMap<>();
+
+    /**
+     * Handle for a session, assigned the first time it is announced.
+     */
+    int handle(String sessionId) {
+        return sessionHandles.computeIfAbsent(sessionId, id -> nextHandle.getAndIncrement());
+    }
+
+    void release(String sessionId) {
+        sessionHandles.remove(sessionId);
+    }
+
+    /**
+     * Dimension table for the init message, id to name.
+     */
+    JsonObject dimensionsJson() {
+        JsonObject json = new JsonObject();
+        dimensionIds.forEach((name, id) -> json.addProperty(String.valueOf(id), name));
+        return json;
+    }
+
+    /**
+     * Assigns an id to a dimension name. Returns the DIMENSION record to send first if the
+     * name is new, otherwise null.
+     */
+    synchronized ByteBuffer registerDimension(String name) {
+        if (dimensionIds.containsKey(name)) {
+            return null;
+        }
+        int id = dimensionIds.size();
+        dimensionIds.put(name, id);
+
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        Writer writer = new Writer(12 + utf8.length);
+        writer.writeByte(TAG_DIMENSION);
+        writer.writeVarLong(id);
+        writer.writeVarLong(utf8.length);
+        writer.writeBytes(utf8);
+        return writer.toBuffer();
+    }
+
+    ByteBuffer routePoint(long seq, int handle, long startedAt, RoutePoint point, int pingMs, long worldTime,
+                          boolean online) {
+        Writer writer = new Writer(64);
+        writer.writeByte(TAG_ROUTE_POINT);
+        writer.writeVarLong(seq);
+        writer.writeVarLong(handle);
+        writer.writeSignedVarLong(point.timestamp() - startedAt);
+        writer.writeSignedVarLong(Math.round(point.x() * 10));
+        writer.writeSignedVarLong(Math.round(point.y() * 10));
+        writer.writeSignedVarLong(Math.round(point.z() * 10));
+        writer.writeVarLong(dimensionIds.getOrDefault(point.dimension(), 0));
+        writer.writeVarLong(Math.max(0, pingMs));
+        writer.writeVarLong(worldTime);
+        writer.writeByte(online ? 1 : 0);
+        return writer.toBuffer();
+    }
+
+    ByteBuffer timeUpdate(long seq, long worldTime) {
+        Writer writer = new Writer(24);
+        writer.writeByte(TAG_TIME_UPDATE);
+        writer.writeVarLong(seq);
+        writer.writeVarLong(worldTime);
+        return writer.toBuffer();
+    }
+
+    private static final class Writer {
+        private byte[] buf;
+        private int pos;
+
+        Writer(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+            }
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(buf, 0, pos).asReadOnlyBuffer();
+        }
+    }
+}
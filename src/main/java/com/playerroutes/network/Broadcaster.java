@@ -0,0 +1,94 @@
+package com.playerroutes.network;
+
+import com.playerroutes.PlayerRoutes;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Broadcaster thread: the single consumer of live events. Producers only enqueue a task; building
+ * messages and fanning them out to clients happens here, in the order the tasks were submitted.
+ */
+class Broadcaster {
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    // Set while the thread is parked on an empty queue, so producers only unpark when needed
+    private final AtomicBoolean idle = new AtomicBoolean();
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "PlayerRoutes-Broadcaster");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread after it has run everything already submitted.
+     */
+    void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    /**
+     * Queues a task; dropped when the broadcaster is not running, as there is nobody to send to.
+     */
+    void submit(Runnable task) {
+        if (!running) return;
+        queue.offer(task);
+        pending.incrementAndGet();
+        if (idle.get() && idle.compareAndSet(true, false)) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    int size() {
+        return pending.get();
+    }
+
+    private void run() {
+        while (running) {
+            if (drain() == 0) {
+                idle.set(true);
+                // Recheck so a task submitted just before the flag was set is not left waiting
+                if (queue.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle.set(false);
+            }
+        }
+        // Final pass so events submitted before stop() are not lost
+        drain();
+    }
+
+    private int drain() {
+        int count = 0;
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            pending.decrementAndGet();
+            count++;
+            try {
+                task.run();
+            } catch (Exception e) {
+                PlayerRoutes.LOGGER.error("Failed to broadcast event: {}", e.getMessage(), e);
+            }
+        }
+        return count;
+    }
+}
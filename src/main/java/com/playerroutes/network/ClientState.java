@@ -0,0 +1,24 @@
+package com.playerroutes.network;
+
+/**
+ * Per-connection state: the subprotocol chosen in the handshake and options
+ * negotiated with a {@code client_options} message.
+ */
+class ClientState {
+    // Negotiated playerroutes.bin.v1: live updates as binary frames, batching does not apply
+    final boolean binary;
+    // Bounded queue in front of the socket; all live events go through it
+    final OutboundQueue outbound;
+    // Set on the broadcaster thread once init or resume is queued; live events skip the client until then
+    volatile boolean live = false;
+
+    // Receive updates as one "batch" message per interval instead of one message per event
+    volatile boolean batch = false;
+    // Within a batch, keep only the newest route point per session
+    volatile boolean conflate = false;
+
+    ClientState(boolean binary, OutboundQueue outbound) {
+        this.binary = binary;
+        this.outbound = outbound;
+    }
+}
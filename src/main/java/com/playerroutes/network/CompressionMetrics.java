@@ -0,0 +1,45 @@
+package com.playerroutes.network;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for permessage-deflate, shared by every connection's extension instance.
+ */
+public class CompressionMetrics {
+    private final LongAdder compressedFrames = new LongAdder();
+    private final LongAdder skippedFrames = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    void recordCompressed(int inputBytes, int outputBytes, long elapsedNanos) {
+        compressedFrames.increment();
+        bytesIn.add(inputBytes);
+        bytesOut.add(outputBytes);
+        nanos.add(elapsedNanos);
+    }
+
+    /**
+     * A frame sent uncompressed to a deflate connection because it was below the threshold.
+     */
+    void recordSkipped() {
+        skippedFrames.increment();
+    }
+
+    public Stats getStats() {
+        return new Stats(compressedFrames.sum(), skippedFrames.sum(), bytesIn.sum(), bytesOut.sum(), nanos.sum());
+    }
+
+    public record Stats(long compressedFrames, long skippedFrames, long bytesIn, long bytesOut, long nanos) {
+        /**
+         * Compressed size as a fraction of the original (lower is better).
+         */
+        public double ratio() {
+            return bytesIn == 0 ? 1.0 : (double) bytesOut / bytesIn;
+        }
+
+        public double microsPerFrame() {
+            return compressedFrames == 0 ? 0.0 : nanos / 1000.0 / compressedFrames;
+        }
+    }
+}
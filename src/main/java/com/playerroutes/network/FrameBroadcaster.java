@@ -0,0 +1,39 @@
+package com.playerroutes.network;
+
+import org.java_websocket.WebSocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sends one message to many connections, encoding and framing it once (see {@link SharedMessage}).
+ */
+public final class FrameBroadcaster {
+    private FrameBroadcaster() {}
+
+    /**
+     * @return number of open connections the message was handed to
+     */
+    public static int broadcast(org.java_websocket.server.WebSocketServer server, String text,
+                                Iterable<? extends WebSocket> clients) {
+        return broadcast(server, SharedMessage.text(text), clients);
+    }
+
+    /**
+     * Binary variant; {@code data} is not consumed.
+     */
+    public static int broadcast(org.java_websocket.server.WebSocketServer server, ByteBuffer data,
+                                Iterable<? extends WebSocket> clients) {
+        return broadcast(server, SharedMessage.binary(data), clients);
+    }
+
+    public static int broadcast(org.java_websocket.server.WebSocketServer server, SharedMessage message,
+                                Iterable<? extends WebSocket> clients) {
+        int sent = 0;
+        for (WebSocket client : clients) {
+            if (message.sendTo(server, client)) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+}
@@ -0,0 +1,246 @@
+package com.playerroutes.network;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.playerroutes.PlayerRoutes;
+import com.playerroutes.data.PlayerSession;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Streams this server's live events to a hub ({@code com.playerroutes.hub.HubServer}) over one
+ * persistent connection. Events are sent as a {@code hub_batch} every batch interval.
+ *
+ * Each time the link connects it first sends a {@code hub_hello} with the active sessions, so
+ * the hub can rebuild this server's state. Events published while disconnected are therefore
+ * not kept. If the hub falls too far behind, either in pending events or in batches still
+ * waiting in the socket's write queue, the link reconnects instead of buffering without bound.
+ * Reconnects back off from one second to 30 seconds.
+ */
+public class HubLink {
+    private static final int MAX_PENDING_EVENTS = 20000;
+    // Batches written to the socket but not yet taken by the hub
+    private static final int MAX_UNSENT_BATCHES = 64;
+    private static final long MIN_RECONNECT_MS = 1000;
+    private static final long MAX_RECONNECT_MS = 30000;
+
+    private final URI uri;
+    private final String serverId;
+    private final int batchIntervalMs;
+    private final Supplier<Collection<PlayerSession>> activeSessions;
+
+    // Events waiting for the next batch; guarded by this
+    private List<JsonObject> pending = new ArrayList<>();
+    private volatile boolean ready = false;
+
+    private ScheduledExecutorService executor;
+    private volatile Client client;
+    private long reconnectDelayMs = MIN_RECONNECT_MS; // link thread only
+    private volatile boolean running = false;
+
+    /**
+     * @param activeSessions sessions to announce in {@code hub_hello}, read on the link thread
+     */
+    public HubLink(String hubUrl, String serverId, String token, int batchIntervalMs,
+                   Supplier<Collection<PlayerSession>> activeSessions) {
+        String separator = hubUrl.contains("?") ? "&" : "?";
+        this.uri = URI.create(hubUrl + separator + "serverId=" + URLEncoder.encode(serverId, StandardCharsets.UTF_8)
+                + "&token=" + URLEncoder.encode(token, StandardCharsets.UTF_8));
+        this.serverId = serverId;
+        this.batchIntervalMs = batchIntervalMs;
+        this.activeSessions = activeSessions;
+    }
+
+    public void start() {
+        running = true;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "PlayerRoutes-HubLink");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.execute(this::connect);
+        executor.scheduleAtFixedRate(this::flush, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+        PlayerRoutes.LOGGER.info("Hub link to {} started as server '{}'", uri.getHost(), serverId);
+    }
+
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Send what was published during shutdown, such as the final session ends
+        flush();
+        Client c = client;
+        if (c != null) {
+            c.close();
+        }
+    }
+
+    /**
+     * Queues a published event for the next batch. The message must not be modified afterwards.
+     */
+    public void offer(JsonObject event) {
+        if (!ready) return;
+        boolean overflow;
+        synchronized (this) {
+            pending.add(event);
+            overflow = pending.size() > MAX_PENDING_EVENTS;
+        }
+        if (overflow) {
+            reconnectBehind(MAX_PENDING_EVENTS + " events");
+        }
+    }
+
+    /**
+     * Drops what is pending and closes the link; the next connection re-announces the active sessions.
+     */
+    private void reconnectBehind(String backlog) {
+        synchronized (this) {
+            if (!ready) return;
+            pending = new ArrayList<>();
+            ready = false;
+        }
+        PlayerRoutes.LOGGER.warn("Hub link fell behind by {}, reconnecting", backlog);
+        Client c = client;
+        if (c != null) {
+            // Do not wait for the close handshake, it would queue behind the unsent batches
+            c.closeConnection(1008, "hub link fell behind");
+        }
+    }
+
+    public boolean isConnected() {
+        return ready;
+    }
+
+    private void connect() {
+        if (!running) return;
+        try {
+            Client c = new Client(uri);
+            client = c;
+            c.connect();
+        } catch (Exception e) {
+            PlayerRoutes.LOGGER.warn("Hub link connect failed: {}", e.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    private void scheduleReconnect() {
+        if (!running) return;
+        long delay = reconnectDelayMs;
+        reconnectDelayMs = Math.min(MAX_RECONNECT_MS, reconnectDelayMs * 2);
+        executor.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs on the link thread, so it is always sent before the first batch.
+     */
+    private void sendHello(Client c) {
+        if (c != client || !c.isOpen()) return;
+        reconnectDelayMs = MIN_RECONNECT_MS;
+
+        // Start collecting before the snapshot; the hub ignores events it already has
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        ready = true;
+
+        JsonArray sessions = new JsonArray();
+        for (PlayerSession session : activeSessions.get()) {
+            sessions.add(session.toJson());
+        }
+        JsonObject hello = new JsonObject();
+        hello.addProperty("type", "hub_hello");
+        hello.addProperty("serverId", serverId);
+        hello.add("activeSessions", sessions);
+        c.send(hello.toString());
+        PlayerRoutes.LOGGER.info("Hub link connected, announced {} active sessions", sessions.size());
+    }
+
+    private void flush() {
+        try {
+            Client c = client;
+            if (!ready || c == null) return;
+
+            int unsent = c.getConnection() instanceof WebSocketImpl impl ? impl.outQueue.size() : 0;
+            if (unsent >= MAX_UNSENT_BATCHES) {
+                reconnectBehind(unsent + " unsent batches");
+                return;
+            }
+
+            List<JsonObject> events;
+            synchronized (this) {
+                if (pending.isEmpty()) return;
+                events = pending;
+                pending = new ArrayList<>();
+            }
+
+            JsonArray array = new JsonArray();
+            for (JsonObject event : events) {
+                array.add(event);
+            }
+            JsonObject batch = new JsonObject();
+            batch.addProperty("type", "hub_batch");
+            batch.add("events", array);
+            c.send(batch.toString());
+        } catch (Exception e) {
+            PlayerRoutes.LOGGER.warn("Hub link send failed: {}", e.getMessage());
+        }
+    }
+
+    private void onDisconnected(Client c, String reason) {
+        if (c != client) return;
+        ready = false;
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        if (running) {
+            PlayerRoutes.LOGGER.warn("Hub link disconnected ({}), retrying in {} ms", reason, reconnectDelayMs);
+            executor.execute(this::scheduleReconnect);
+        }
+    }
+
+    private class Client extends WebSocketClient {
+        Client(URI uri) {
+            super(uri);
+        }
+
+        @Override
+        public void onOpen(ServerHandshake handshake) {
+            if (running) {
+                executor.execute(() -> sendHello(this));
+            }
+        }
+
+        @Override
+        public void onMessage(String message) {
+            // The hub does not send anything to game servers
+        }
+
+        @Override
+        public void onClose(int code, String reason, boolean remote) {
+            onDisconnected(this, reason == null || reason.isEmpty() ? "code " + code : reason);
+        }
+
+        @Override
+        public void onError(Exception ex) {
+            PlayerRoutes.LOGGER.debug("Hub link error: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.playerroutes.network;
+
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.framing.DataFrame;
+import org.java_websocket.framing.Framedata;
+
+import java.util.zip.Deflater;
+
+/**
+ * permessage-deflate that records compression ratio and time. Messages smaller than the
+ * threshold are sent uncompressed.
+ */
+class MeteredDeflateExtension extends PerMessageDeflateExtension {
+    private final int compressionLevel;
+    private final CompressionMetrics metrics;
+
+    MeteredDeflateExtension(int compressionLevel, int threshold, CompressionMetrics metrics) {
+        // Raw deflate as permessage-deflate requires, like the library's default deflater
+        setDeflater(new Deflater(compressionLevel, true));
+        this.compressionLevel = compressionLevel;
+        this.metrics = metrics;
+        setThreshold(threshold);
+    }
+
+    @Override
+    public void encodeFrame(Framedata frame) {
+        if (!(frame instanceof DataFrame)) {
+            super.encodeFrame(frame);
+            return;
+        }
+
+        int inputBytes = frame.getPayloadData().remaining();
+        long start = System.nanoTime();
+        super.encodeFrame(frame);
+        if (frame.isRSV1()) {
+            metrics.recordCompressed(inputBytes, frame.getPayloadData().remaining(), System.nanoTime() - start);
+        } else {
+            metrics.recordSkipped();
+        }
+    }
+
+    @Override
+    public IExtension copyInstance() {
+        // Each connection gets its own deflater state, but all report into the same metrics
+        return new MeteredDeflateExtension(compressionLevel, getThreshold(), metrics);
+    }
+}
@@ -0,0 +1,19 @@
+package com.playerroutes.network;
+
+import com.playerroutes.metrics.PointLatency;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals over every client's {@link OutboundQueue}, kept beyond the lifetime of a single
+ * connection.
+ */
+class OutboundMetrics {
+    final LongAdder messagesSent = new LongAdder();
+    // Uncompressed payload size; permessage-deflate may shrink what goes on the wire
+    final LongAdder bytesSent = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+    final LongAdder conflated = new LongAdder();
+    final LongAdder slowDisconnects = new LongAdder();
+    final PointLatency latency = new PointLatency();
+}
@@ -0,0 +1,141 @@
+package com.playerroutes.network;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded outbound buffer for one connection. Messages go straight to the socket while the
+ * client keeps up. Once the socket's write queue reaches the limit, new messages are held here:
+ * droppable ones (time updates) are discarded, conflatable ones (route points) keep only the
+ * newest per session, and the rest wait in order. A client that stays congested longer than the
+ * timeout, or whose held messages exceed the limit, is disconnected.
+ *
+ * Also used by the hub for its dashboards, so it must not depend on game classes.
+ */
+public class OutboundQueue {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboundQueue.class);
+
+    public enum Kind { RELIABLE, CONFLATABLE, DROPPABLE }
+
+    private final org.java_websocket.server.WebSocketServer server;
+    private final WebSocket conn;
+    private final int limit;
+    private final long slowClientTimeoutMs;
+    private final OutboundMetrics metrics;
+
+    // Held messages in send order; conflatable ones are keyed by session, the rest by a unique key
+    private final LinkedHashMap<Object, SharedMessage> held = new LinkedHashMap<>();
+    private long congestedSince = 0;
+    private boolean closed = false;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder conflated = new LongAdder();
+
+    public OutboundQueue(org.java_websocket.server.WebSocketServer server, WebSocket conn, int limit,
+                         long slowClientTimeoutMs) {
+        this(server, conn, limit, slowClientTimeoutMs, new OutboundMetrics());
+    }
+
+    OutboundQueue(org.java_websocket.server.WebSocketServer server, WebSocket conn, int limit,
+                  long slowClientTimeoutMs, OutboundMetrics metrics) {
+        this.server = server;
+        this.conn = conn;
+        this.limit = limit;
+        this.slowClientTimeoutMs = slowClientTimeoutMs;
+        this.metrics = metrics;
+    }
+
+    public synchronized void offer(SharedMessage message, Kind kind, String conflationKey) {
+        if (closed) return;
+        if (held.isEmpty() && socketDepth() < limit) {
+            send(message);
+            return;
+        }
+
+        switch (kind) {
+            case DROPPABLE -> {
+                dropped.increment();
+                metrics.dropped.increment();
+            }
+            case CONFLATABLE -> {
+                // Move the replacement to the tail so held messages stay in publish (seq) order
+                if (held.remove(conflationKey) != null) {
+                    conflated.increment();
+                    metrics.conflated.increment();
+                }
+                held.put(conflationKey, message);
+            }
+            case RELIABLE -> held.put(new Object(), message);
+        }
+        if (congestedSince == 0) {
+            congestedSince = System.currentTimeMillis();
+        }
+
+        if (held.size() > limit) {
+            disconnect("outbound queue full");
+        } else {
+            drain();
+        }
+    }
+
+    /**
+     * Moves held messages to the socket as it drains. Called on every offer and periodically
+     * by the owning server, which must do so for congested clients to be timed out.
+     */
+    public synchronized void drain() {
+        if (closed || held.isEmpty()) return;
+
+        Iterator<SharedMessage> it = held.values().iterator();
+        while (it.hasNext() && socketDepth() < limit) {
+            send(it.next());
+            it.remove();
+        }
+
+        if (held.isEmpty()) {
+            congestedSince = 0;
+        } else if (System.currentTimeMillis() - congestedSince > slowClientTimeoutMs) {
+            disconnect("client too slow");
+        }
+    }
+
+    private void send(SharedMessage message) {
+        if (!message.sendTo(server, conn)) return;
+        metrics.messagesSent.increment();
+        metrics.bytesSent.add(message.payloadBytes());
+        if (message.captureNanos() != 0) {
+            long now = System.nanoTime();
+            metrics.latency.write.recordNanos(now - message.serializedNanos());
+            metrics.latency.total.recordNanos(now - message.captureNanos());
+        }
+    }
+
+    private void disconnect(String reason) {
+        closed = true;
+        held.clear();
+        metrics.slowDisconnects.increment();
+        LOGGER.warn("Disconnecting WebSocket client {}: {}", conn.getRemoteSocketAddress(), reason);
+        // Close without waiting for the close handshake, the client is not reading
+        conn.closeConnection(1008, reason);
+    }
+
+    private int socketDepth() {
+        return conn instanceof WebSocketImpl impl ? impl.outQueue.size() : 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(String.valueOf(conn.getRemoteSocketAddress()), socketDepth(), held.size(),
+                dropped.sum(), conflated.sum());
+    }
+
+    /**
+     * @param socketDepth frames waiting in the socket's write queue
+     * @param held        messages held back while the client is congested
+     */
+    public record Stats(String client, int socketDepth, int held, long dropped, long conflated) {}
+}
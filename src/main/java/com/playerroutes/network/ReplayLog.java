@@ -0,0 +1,58 @@
+package com.playerroutes.network;
+
+import com.google.gson.JsonObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded log of recent live events, so a reconnecting client can receive only what it missed.
+ * Not thread-safe; the server guards it with its broadcast lock.
+ */
+class ReplayLog {
+    record Entry(long seq, Topic topic, JsonObject message) {}
+
+    private final int capacity;
+    private final ArrayDeque<Entry> entries;
+    // Highest sequence number no longer in the log
+    private long evictedUpTo = 0;
+
+    ReplayLog(int capacity) {
+        this.capacity = capacity;
+        this.entries = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    void append(long seq, Topic topic, JsonObject message) {
+        if (capacity == 0) {
+            evictedUpTo = seq;
+            return;
+        }
+        if (entries.size() == capacity) {
+            evictedUpTo = entries.removeFirst().seq();
+        }
+        entries.addLast(new Entry(seq, topic, message));
+    }
+
+    /**
+     * Events after {@code seq}, or null if some of them have already been evicted.
+     */
+    List<Entry> since(long seq) {
+        if (seq < evictedUpTo) {
+            return null;
+        }
+        List<Entry> missed = new ArrayList<>();
+        // Newest events are at the end; walk back only as far as needed
+        var it = entries.descendingIterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.seq() <= seq) break;
+            missed.add(entry);
+        }
+        return missed.reversed();
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,139 @@
+package com.playerroutes.network;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.playerroutes.PlayerRoutes;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.storage.StorageProvider;
+import org.java_websocket.WebSocket;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers {@code query_sessions} requests with pages of session summaries, off the WebSocket
+ * thread. A page ends with an opaque cursor that repeats the query from where it stopped;
+ * clients pass it back unchanged and must not rely on its contents.
+ */
+class SessionQueries {
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+
+    private ExecutorService executor;
+
+    void start() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "PlayerRoutes-Query");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    void handle(WebSocket conn, JsonObject request) {
+        ExecutorService ex = executor;
+        if (ex == null || ex.isShutdown()) return;
+        ex.execute(() -> {
+            String requestId = request.has("requestId") ? request.get("requestId").getAsString() : null;
+            try {
+                conn.send(query(request, requestId).toString());
+            } catch (Exception e) {
+                PlayerRoutes.LOGGER.warn("Session query from {} failed: {}", conn.getRemoteSocketAddress(), e.getMessage());
+                JsonObject response = response(requestId);
+                response.addProperty("error", e.getMessage());
+                conn.send(response.toString());
+            }
+        });
+    }
+
+    private JsonObject query(JsonObject request, String requestId) {
+        Query query = request.has("cursor") ? Query.decode(request.get("cursor").getAsString()) : Query.fromJson(request);
+
+        StorageProvider storage = PlayerRoutes.getInstance().getStorageProvider();
+        if (storage == null) {
+            throw new IllegalStateException("Storage not available");
+        }
+
+        // One extra row tells whether there is a next page
+        int fetch = query.limit() + 1;
+        List<SessionSummary> rows;
+        if (query.player() != null) {
+            rows = storage.getSessionsByPlayer(query.player(), fetch, query.offset());
+        } else if (query.from() != null || query.to() != null) {
+            rows = storage.getSessionsByTimeRange(query.from() != null ? query.from() : 0,
+                    query.to() != null ? query.to() : Long.MAX_VALUE, fetch, query.offset());
+        } else {
+            rows = storage.getAllSessions(fetch, query.offset());
+        }
+
+        JsonArray sessions = new JsonArray();
+        for (int i = 0; i < Math.min(rows.size(), query.limit()); i++) {
+            sessions.add(rows.get(i).toSummaryJson());
+        }
+
+        JsonObject response = response(requestId);
+        response.add("sessions", sessions);
+        if (rows.size() > query.limit()) {
+            response.addProperty("nextCursor", query.next().encode());
+        }
+        return response;
+    }
+
+    private static JsonObject response(String requestId) {
+        JsonObject response = new JsonObject();
+        response.addProperty("type", "query_sessions_response");
+        if (requestId != null) {
+            response.addProperty("requestId", requestId);
+        }
+        return response;
+    }
+
+    /**
+     * Query parameters and position. Offsets count from the newest session, so sessions started
+     * while a client pages can shift later pages by a few rows.
+     */
+    private record Query(UUID player, Long from, Long to, int limit, int offset) {
+        static Query fromJson(JsonObject json) {
+            UUID player = json.has("playerUuid") ? UUID.fromString(json.get("playerUuid").getAsString()) : null;
+            Long from = json.has("from") ? json.get("from").getAsLong() : null;
+            Long to = json.has("to") ? json.get("to").getAsLong() : null;
+            int limit = json.has("limit") ? json.get("limit").getAsInt() : DEFAULT_LIMIT;
+            return new Query(player, from, to, Math.max(1, Math.min(MAX_LIMIT, limit)), 0);
+        }
+
+        Query next() {
+            return new Query(player, from, to, limit, offset + limit);
+        }
+
+        String encode() {
+            JsonObject json = new JsonObject();
+            if (player != null) json.addProperty("playerUuid", player.toString());
+            if (from != null) json.addProperty("from", from);
+            if (to != null) json.addProperty("to", to);
+            json.addProperty("limit", limit);
+            json.addProperty("offset", offset);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Query decode(String cursor) {
+            try {
+                JsonObject json = JsonParser.parseString(
+                        new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)).getAsJsonObject();
+                Query query = fromJson(json);
+                return new Query(query.player, query.from, query.to, query.limit, Math.max(0, json.get("offset").getAsInt()));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
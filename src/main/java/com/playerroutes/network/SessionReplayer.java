@@ -0,0 +1,293 @@
+package com.playerroutes.network;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.playerroutes.PlayerRoutes;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.session.SessionManager;
+import org.java_websocket.WebSocket;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the path of a finished session in chunks for {@code replay_session} requests.
+ *
+ * Flow control is credit based: every chunk costs one credit and the client grants more with
+ * {@code replay_ack}, so a stream never runs ahead of its reader. A stream holds at most one
+ * page of points, read from storage when the previous page has been sent, so its memory does
+ * not depend on the session's length. With a {@code speed}, points are released as they fall
+ * due at that multiple of real time instead of as fast as credits allow.
+ *
+ * All stream state is confined to the replay thread.
+ */
+class SessionReplayer {
+    static final int DEFAULT_CHUNK_SIZE = 500;
+    static final int MAX_CHUNK_SIZE = 2000;
+    static final int DEFAULT_CREDITS = 4;
+    static final int MAX_CREDITS = 64;
+    static final int MAX_STREAMS_PER_CLIENT = 4;
+    private static final long TICK_MS = 50;
+
+    private final SessionManager sessionManager;
+    // Replay thread only
+    private final Map<WebSocket, Map<String, Stream>> streams = new HashMap<>();
+    private long nextStreamId = 1;
+    private ScheduledExecutorService executor;
+
+    SessionReplayer(SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "PlayerRoutes-Replay");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    void open(WebSocket conn, JsonObject request) {
+        run(() -> openStream(conn, request));
+    }
+
+    void ack(WebSocket conn, JsonObject request) {
+        run(() -> {
+            Stream stream = find(conn, request);
+            if (stream != null) {
+                int credits = request.has("credits") ? request.get("credits").getAsInt() : 1;
+                stream.credits = Math.min(MAX_CREDITS, stream.credits + Math.max(0, credits));
+                pump(stream);
+            }
+        });
+    }
+
+    void cancel(WebSocket conn, JsonObject request) {
+        run(() -> {
+            Stream stream = find(conn, request);
+            if (stream != null) {
+                remove(stream);
+            }
+        });
+    }
+
+    void disconnect(WebSocket conn) {
+        run(() -> streams.remove(conn));
+    }
+
+    private void run(Runnable task) {
+        ScheduledExecutorService ex = executor;
+        if (ex == null || ex.isShutdown()) return;
+        ex.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                PlayerRoutes.LOGGER.error("Session replay failed: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    private void openStream(WebSocket conn, JsonObject request) {
+        String streamId = request.has("streamId") ? request.get("streamId").getAsString() : "r" + nextStreamId++;
+        String sessionId = request.has("sessionId") ? request.get("sessionId").getAsString() : null;
+
+        Map<String, Stream> clientStreams = streams.computeIfAbsent(conn, k -> new LinkedHashMap<>());
+        if (clientStreams.containsKey(streamId)) {
+            sendError(conn, streamId, "Stream already open");
+            return;
+        }
+        if (clientStreams.size() >= MAX_STREAMS_PER_CLIENT) {
+            sendError(conn, streamId, "Too many open replay streams");
+            return;
+        }
+
+        SessionSummary session = sessionId != null ? sessionManager.getSessionSummary(sessionId) : null;
+        if (session == null) {
+            sendError(conn, streamId, "Session not found");
+            return;
+        }
+        if (session.active()) {
+            sendError(conn, streamId, "Session is still active");
+            return;
+        }
+
+        Stream stream = new Stream(conn, streamId, sessionId,
+                clamp(request, "chunkSize", DEFAULT_CHUNK_SIZE, 1, MAX_CHUNK_SIZE),
+                request.has("speed") ? Math.max(0, request.get("speed").getAsDouble()) : 0);
+        stream.cursor = request.has("cursor") ? Math.max(0, request.get("cursor").getAsLong()) : 0;
+        stream.credits = clamp(request, "credits", DEFAULT_CREDITS, 0, MAX_CREDITS);
+        clientStreams.put(streamId, stream);
+
+        JsonObject response = new JsonObject();
+        response.addProperty("type", "replay_start");
+        response.addProperty("streamId", streamId);
+        response.add("session", session.toSummaryJson());
+        response.addProperty("cursor", stream.cursor);
+        response.addProperty("chunkSize", stream.chunkSize);
+        response.addProperty("speed", stream.speed);
+        conn.send(response.toString());
+
+        pump(stream);
+    }
+
+    private void tick() {
+        try {
+            List<Stream> active = new ArrayList<>();
+            for (Map<String, Stream> clientStreams : streams.values()) {
+                active.addAll(clientStreams.values());
+            }
+            for (Stream stream : active) {
+                pump(stream);
+            }
+        } catch (Exception e) {
+            PlayerRoutes.LOGGER.error("Session replay failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends chunks while the stream has credit and, for timed replays, points that are due.
+     */
+    private void pump(Stream stream) {
+        if (!stream.conn.isOpen()) {
+            streams.remove(stream.conn);
+            return;
+        }
+
+        while (stream.credits > 0) {
+            if (stream.bufferPos == stream.buffer.size()) {
+                if (stream.exhausted) {
+                    // Nothing left and the last chunk was not marked done: close with an empty chunk
+                    sendChunk(stream, 0);
+                    return;
+                }
+                stream.buffer = sessionManager.getSessionPoints(stream.sessionId, stream.cursor, stream.chunkSize);
+                stream.bufferPos = 0;
+                stream.exhausted = stream.buffer.size() < stream.chunkSize;
+                continue;
+            }
+
+            int count = stream.buffer.size() - stream.bufferPos;
+            if (stream.speed > 0) {
+                count = duePoints(stream);
+                if (count == 0) return;
+            }
+            if (sendChunk(stream, count)) return;
+        }
+    }
+
+    private int duePoints(Stream stream) {
+        long now = System.currentTimeMillis();
+        if (stream.replayStartedAt == 0) {
+            stream.replayStartedAt = now;
+            stream.firstPointTime = stream.buffer.get(stream.bufferPos).timestamp();
+        }
+        double dueTime = stream.firstPointTime + (now - stream.replayStartedAt) * stream.speed;
+
+        int count = 0;
+        for (int i = stream.bufferPos; i < stream.buffer.size(); i++) {
+            if (stream.buffer.get(i).timestamp() > dueTime) break;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return true if this was the last chunk of the stream
+     */
+    private boolean sendChunk(Stream stream, int count) {
+        JsonArray points = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            points.add(stream.buffer.get(stream.bufferPos + i).toJson());
+        }
+        stream.bufferPos += count;
+        stream.cursor += count;
+        stream.credits--;
+
+        boolean done = stream.exhausted && stream.bufferPos == stream.buffer.size();
+        if (stream.bufferPos == stream.buffer.size()) {
+            // Drop the sent page; the next one is read on demand
+            stream.buffer = List.of();
+            stream.bufferPos = 0;
+        }
+
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "replay_chunk");
+        message.addProperty("streamId", stream.streamId);
+        message.addProperty("cursor", stream.cursor);
+        message.add("points", points);
+        message.addProperty("done", done);
+        stream.conn.send(message.toString());
+
+        if (done) {
+            remove(stream);
+        }
+        return done;
+    }
+
+    private Stream find(WebSocket conn, JsonObject request) {
+        Map<String, Stream> clientStreams = streams.get(conn);
+        if (clientStreams == null || !request.has("streamId")) return null;
+        return clientStreams.get(request.get("streamId").getAsString());
+    }
+
+    private void remove(Stream stream) {
+        Map<String, Stream> clientStreams = streams.get(stream.conn);
+        if (clientStreams != null) {
+            clientStreams.remove(stream.streamId);
+            if (clientStreams.isEmpty()) {
+                streams.remove(stream.conn);
+            }
+        }
+    }
+
+    private static int clamp(JsonObject request, String name, int def, int min, int max) {
+        int value = request.has(name) ? request.get(name).getAsInt() : def;
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static void sendError(WebSocket conn, String streamId, String error) {
+        JsonObject response = new JsonObject();
+        response.addProperty("type", "replay_error");
+        response.addProperty("streamId", streamId);
+        response.addProperty("error", error);
+        conn.send(response.toString());
+    }
+
+    private static class Stream {
+        final WebSocket conn;
+        final String streamId;
+        final String sessionId;
+        final int chunkSize;
+        final double speed;
+
+        long cursor;          // index of the next point to send
+        int credits;
+        List<RoutePoint> buffer = List.of();
+        int bufferPos;
+        boolean exhausted;    // the last page read was short, nothing after the buffer
+        long replayStartedAt; // timed replays: wall clock and session time of the first point
+        long firstPointTime;
+
+        Stream(WebSocket conn, String streamId, String sessionId, int chunkSize, double speed) {
+            this.conn = conn;
+            this.streamId = streamId;
+            this.sessionId = sessionId;
+            this.chunkSize = chunkSize;
+            this.speed = speed;
+        }
+    }
+}
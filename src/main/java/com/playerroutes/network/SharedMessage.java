@@ -0,0 +1,150 @@
+package com.playerroutes.network;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.DefaultExtension;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.framing.Framedata;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One outgoing message, encoded and framed at most once per distinct draft no matter how many
+ * connections it is written to.
+ *
+ * The library's own {@code broadcast} shares the encoded payload but still builds the frame
+ * bytes for each connection. Here the complete frame is built once, and each connection gets a
+ * read-only view of that buffer in its write queue. A compressing connection keeps
+ * per-connection deflater state, so it shares the frame only when the message is below its
+ * compression threshold and otherwise falls back to a normal send.
+ */
+public final class SharedMessage {
+    private final String text;
+    private final ByteBuffer data;
+    private final int payloadBytes;
+    // System.nanoTime() stamps of a route point, 0 for other messages
+    private long captureNanos;
+    private long serializedNanos;
+
+    // Usually every connection uses an equal draft, so these stay at one entry
+    private final List<Draft> drafts = new ArrayList<>(1);
+    private final List<ByteBuffer> frames = new ArrayList<>(1);
+
+    private SharedMessage(String text, ByteBuffer data, int payloadBytes) {
+        this.text = text;
+        this.data = data;
+        this.payloadBytes = payloadBytes;
+    }
+
+    public static SharedMessage text(String text) {
+        return new SharedMessage(text, null, text.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    /**
+     * Binary message; {@code data} is not consumed.
+     */
+    public static SharedMessage binary(ByteBuffer data) {
+        return new SharedMessage(null, data, data.remaining());
+    }
+
+    /**
+     * Marks this message as carrying a route point, so each socket write is counted in the
+     * point latency stats.
+     */
+    SharedMessage timed(long captureNanos, long serializedNanos) {
+        this.captureNanos = captureNanos;
+        this.serializedNanos = serializedNanos;
+        return this;
+    }
+
+    long captureNanos() {
+        return captureNanos;
+    }
+
+    long serializedNanos() {
+        return serializedNanos;
+    }
+
+    int payloadBytes() {
+        return payloadBytes;
+    }
+
+    /**
+     * @return false if the connection is no longer open
+     */
+    public boolean sendTo(org.java_websocket.server.WebSocketServer server, WebSocket client) {
+        if (!client.isOpen()) return false;
+
+        Draft draft = client.getDraft();
+        if (client instanceof WebSocketImpl impl && isShareable(draft)) {
+            impl.outQueue.add(frameFor(draft).duplicate());
+            server.onWriteDemand(impl);
+        } else if (text != null) {
+            client.send(text);
+        } else {
+            client.send(copyOf(data));
+        }
+        return true;
+    }
+
+    // Queued messages can be written by the broadcaster and the flush thread at the same time
+    private synchronized ByteBuffer frameFor(Draft draft) {
+        int i = drafts.indexOf(draft);
+        if (i < 0) {
+            i = drafts.size();
+            drafts.add(draft);
+            // The deflate extension reads the payload's backing array, even below its threshold
+            frames.add(encode(draft, text != null ? draft.createFrames(text, false)
+                    : draft.createFrames(ByteBuffer.wrap(copyOf(data)), false)));
+        }
+        return frames.get(i);
+    }
+
+    private boolean isShareable(Draft draft) {
+        if (!(draft instanceof Draft_6455 d)) {
+            return false;
+        }
+        IExtension extension = d.getExtension();
+        if (extension.getClass() == DefaultExtension.class) {
+            return true;
+        }
+        // Below the threshold the deflate extension leaves the frame untouched; it counts the
+        // skipped frame itself when the shared frame is encoded
+        return extension instanceof MeteredDeflateExtension deflate && payloadBytes < deflate.getThreshold();
+    }
+
+    /**
+     * Exact-size writable copy; the deflate extension compresses the whole backing array.
+     */
+    private static byte[] copyOf(ByteBuffer data) {
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer encode(Draft draft, List<Framedata> frames) {
+        // Server frames are never masked, so the bytes are the same for every connection
+        if (frames.size() == 1) {
+            return draft.createBinaryFrame(frames.get(0)).asReadOnlyBuffer();
+        }
+
+        List<ByteBuffer> parts = new ArrayList<>(frames.size());
+        int total = 0;
+        for (Framedata frame : frames) {
+            ByteBuffer part = draft.createBinaryFrame(frame);
+            parts.add(part);
+            total += part.remaining();
+        }
+        ByteBuffer out = ByteBuffer.allocate(total);
+        for (ByteBuffer part : parts) {
+            out.put(part);
+        }
+        out.flip();
+        return out.asReadOnlyBuffer();
+    }
+}
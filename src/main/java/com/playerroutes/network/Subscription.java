@@ -0,0 +1,86 @@
+package com.playerroutes.network;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A client's interest: dimensions, an XZ box and/or players. A null field does not filter.
+ * Players are matched by UUID or by case-insensitive name.
+ */
+record Subscription(Set<String> dimensions, Bounds bounds, Set<String> players) {
+    static final Subscription ALL = new Subscription(null, null, null);
+
+    record Bounds(double minX, double minZ, double maxX, double maxZ) {
+        boolean contains(double x, double z) {
+            return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+        }
+    }
+
+    boolean matches(Topic topic) {
+        if (players != null && topic.hasPlayer()
+                && !players.contains(topic.playerUuid().toString())
+                && !players.contains(topic.playerName().toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        if (topic.hasPosition()) {
+            if (dimensions != null && !dimensions.contains(topic.dimension())) return false;
+            if (bounds != null && !bounds.contains(topic.x(), topic.z())) return false;
+        }
+        return true;
+    }
+
+    static Subscription fromJson(JsonObject json) {
+        Set<String> dimensions = stringSet(json.get("dimensions"), false);
+        Set<String> players = stringSet(json.get("players"), true);
+
+        Bounds bounds = null;
+        if (json.has("bounds") && json.get("bounds").isJsonObject()) {
+            JsonObject b = json.getAsJsonObject("bounds");
+            double x1 = b.get("minX").getAsDouble();
+            double z1 = b.get("minZ").getAsDouble();
+            double x2 = b.get("maxX").getAsDouble();
+            double z2 = b.get("maxZ").getAsDouble();
+            bounds = new Bounds(Math.min(x1, x2), Math.min(z1, z2), Math.max(x1, x2), Math.max(z1, z2));
+        }
+        return new Subscription(dimensions, bounds, players);
+    }
+
+    private static Set<String> stringSet(JsonElement element, boolean lowerCase) {
+        if (element == null || !element.isJsonArray()) {
+            return null;
+        }
+        Set<String> values = new HashSet<>();
+        for (JsonElement value : element.getAsJsonArray()) {
+            values.add(lowerCase ? value.getAsString().toLowerCase(Locale.ROOT) : value.getAsString());
+        }
+        return Set.copyOf(values);
+    }
+
+    JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        if (dimensions != null) {
+            JsonArray array = new JsonArray();
+            dimensions.forEach(array::add);
+            json.add("dimensions", array);
+        }
+        if (bounds != null) {
+            JsonObject b = new JsonObject();
+            b.addProperty("minX", bounds.minX());
+            b.addProperty("minZ", bounds.minZ());
+            b.addProperty("maxX", bounds.maxX());
+            b.addProperty("maxZ", bounds.maxZ());
+            json.add("bounds", b);
+        }
+        if (players != null) {
+            JsonArray array = new JsonArray();
+            players.forEach(array::add);
+            json.add("players", array);
+        }
+        return json;
+    }
+}
@@ -0,0 +1,188 @@
+package com.playerroutes.network;
+
+import org.java_websocket.WebSocket;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Routes events to the clients whose {@link Subscription} matches.
+ *
+ * Each client is indexed once by its most selective filter: players, else an XZ grid
+ * of the bounding box, else dimensions. Clients without any filter (or with a box too large
+ * to index) are checked on every event. An event only visits the candidates under its own
+ * keys, and candidates are then checked against their full subscription.
+ */
+class SubscriptionIndex {
+    private static final int CELL_SHIFT = 9; // 512-block grid cells
+    private static final long MAX_INDEXED_CELLS = 4096;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<WebSocket, Subscription> subscriptions = new HashMap<>();
+    // Clients checked on every event
+    private final Set<WebSocket> scanned = new HashSet<>();
+    private final Map<String, Set<WebSocket>> byPlayer = new HashMap<>();
+    private final Map<Long, Set<WebSocket>> byCell = new HashMap<>();
+    private final Map<String, Set<WebSocket>> byDimension = new HashMap<>();
+    // Clients indexed by cell or dimension; they match every event that has no position
+    private final Set<WebSocket> spatial = new HashSet<>();
+
+    void add(WebSocket conn) {
+        update(conn, Subscription.ALL);
+    }
+
+    /**
+     * Replaces a client's subscription; called as the user pans or changes filters.
+     */
+    void update(WebSocket conn, Subscription subscription) {
+        lock.writeLock().lock();
+        try {
+            unindex(conn);
+            subscriptions.put(conn, subscription);
+            index(conn, subscription);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(WebSocket conn) {
+        lock.writeLock().lock();
+        try {
+            unindex(conn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Subscription get(WebSocket conn) {
+        lock.readLock().lock();
+        try {
+            return subscriptions.getOrDefault(conn, Subscription.ALL);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Clients interested in an event about this topic.
+     */
+    List<WebSocket> match(Topic topic) {
+        lock.readLock().lock();
+        try {
+            if (!topic.hasPlayer() && !topic.hasPosition()) {
+                return new ArrayList<>(subscriptions.keySet());
+            }
+
+            List<WebSocket> matches = new ArrayList<>();
+            collect(scanned, topic, matches);
+
+            if (topic.hasPlayer()) {
+                Set<WebSocket> byUuid = byPlayer.get(topic.playerUuid().toString());
+                Set<WebSocket> byName = byPlayer.get(topic.playerName().toLowerCase(Locale.ROOT));
+                if (byUuid != null && byName != null) {
+                    // A client listing both the UUID and the name must only be added once
+                    Set<WebSocket> union = new HashSet<>(byUuid);
+                    union.addAll(byName);
+                    collect(union, topic, matches);
+                } else {
+                    collect(byUuid != null ? byUuid : byName, topic, matches);
+                }
+            }
+
+            if (topic.hasPosition()) {
+                collect(byCell.get(cellKey(cell(topic.x()), cell(topic.z()))), topic, matches);
+                collect(byDimension.get(topic.dimension()), topic, matches);
+            } else {
+                collect(spatial, topic, matches);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(Set<WebSocket> candidates, Topic topic, List<WebSocket> matches) {
+        if (candidates == null) return;
+        for (WebSocket conn : candidates) {
+            if (subscriptions.get(conn).matches(topic)) {
+                matches.add(conn);
+            }
+        }
+    }
+
+    private void index(WebSocket conn, Subscription subscription) {
+        if (subscription.players() != null) {
+            for (String player : subscription.players()) {
+                byPlayer.computeIfAbsent(player, k -> new HashSet<>()).add(conn);
+            }
+        } else if (isCellIndexed(subscription.bounds())) {
+            Subscription.Bounds bounds = subscription.bounds();
+            for (long cx = cell(bounds.minX()); cx <= cell(bounds.maxX()); cx++) {
+                for (long cz = cell(bounds.minZ()); cz <= cell(bounds.maxZ()); cz++) {
+                    byCell.computeIfAbsent(cellKey(cx, cz), k -> new HashSet<>()).add(conn);
+                }
+            }
+            spatial.add(conn);
+        } else if (subscription.dimensions() != null) {
+            for (String dimension : subscription.dimensions()) {
+                byDimension.computeIfAbsent(dimension, k -> new HashSet<>()).add(conn);
+            }
+            spatial.add(conn);
+        } else {
+            scanned.add(conn);
+        }
+    }
+
+    private void unindex(WebSocket conn) {
+        Subscription previous = subscriptions.remove(conn);
+        if (previous == null) return;
+
+        scanned.remove(conn);
+        spatial.remove(conn);
+        if (previous.players() != null) {
+            for (String player : previous.players()) {
+                removeFrom(byPlayer, player, conn);
+            }
+        } else if (isCellIndexed(previous.bounds())) {
+            Subscription.Bounds bounds = previous.bounds();
+            for (long cx = cell(bounds.minX()); cx <= cell(bounds.maxX()); cx++) {
+                for (long cz = cell(bounds.minZ()); cz <= cell(bounds.maxZ()); cz++) {
+                    removeFrom(byCell, cellKey(cx, cz), conn);
+                }
+            }
+        } else if (previous.dimensions() != null) {
+            for (String dimension : previous.dimensions()) {
+                removeFrom(byDimension, dimension, conn);
+            }
+        }
+    }
+
+    private static boolean isCellIndexed(Subscription.Bounds bounds) {
+        if (bounds == null) return false;
+        long width = cell(bounds.maxX()) - cell(bounds.minX()) + 1;
+        long depth = cell(bounds.maxZ()) - cell(bounds.minZ()) + 1;
+        return width <= MAX_INDEXED_CELLS && depth <= MAX_INDEXED_CELLS && width * depth <= MAX_INDEXED_CELLS;
+    }
+
+    private static <K> void removeFrom(Map<K, Set<WebSocket>> map, K key, WebSocket conn) {
+        Set<WebSocket> set = map.get(key);
+        if (set != null && set.remove(conn) && set.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    private static long cell(double coordinate) {
+        return (long) Math.floor(coordinate) >> CELL_SHIFT;
+    }
+
+    private static long cellKey(long cellX, long cellZ) {
+        return (cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+}
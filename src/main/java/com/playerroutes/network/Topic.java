@@ -0,0 +1,24 @@
+package com.playerroutes.network;
+
+import java.util.UUID;
+
+/**
+ * What a broadcast event is about, used to route it to interested clients.
+ * Events without a position (session start/end) are matched on the player only;
+ * events without a player (time updates) go to everyone.
+ */
+record Topic(UUID playerUuid, String playerName, String dimension, double x, double z) {
+    static final Topic ALL = new Topic(null, null, null, 0, 0);
+
+    static Topic player(UUID playerUuid, String playerName) {
+        return new Topic(playerUuid, playerName, null, 0, 0);
+    }
+
+    boolean hasPlayer() {
+        return playerUuid != null;
+    }
+
+    boolean hasPosition() {
+        return dimension != null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.playerroutes.network;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects broadcast events between flushes and turns them into {@code batch} messages.
+ * Events keep their arrival order, so ordering within each session is preserved.
+ */
+class UpdateBatcher {
+    static final String ROUTE_POINT = "route_point";
+    static final String TIME_UPDATE = "time_update";
+
+    record Event(String type, String sessionId, Topic topic, JsonObject message) {}
+
+    private List<Event> pending = new ArrayList<>();
+
+    synchronized void add(String type, String sessionId, Topic topic, JsonObject message) {
+        pending.add(new Event(type, sessionId, topic, message));
+    }
+
+    synchronized List<Event> drain() {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        List<Event> events = pending;
+        pending = new ArrayList<>();
+        return events;
+    }
+
+    /**
+     * Builds a batch message. With conflation, a route point is dropped when a newer point for
+     * the same session follows it in the batch, and only the last time update is kept.
+     */
+    static String toBatchMessage(List<Event> events, boolean conflate) {
+        Map<String, Integer> lastPointIndex = new HashMap<>();
+        int lastTimeIndex = -1;
+        if (conflate) {
+            for (int i = 0; i < events.size(); i++) {
+                Event event = events.get(i);
+                if (ROUTE_POINT.equals(event.type())) {
+                    lastPointIndex.put(event.sessionId(), i);
+                } else if (TIME_UPDATE.equals(event.type())) {
+                    lastTimeIndex = i;
+                }
+            }
+        }
+
+        JsonArray array = new JsonArray();
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            if (conflate) {
+                if (ROUTE_POINT.equals(event.type()) && lastPointIndex.get(event.sessionId()) != i) continue;
+                if (TIME_UPDATE.equals(event.type()) && lastTimeIndex != i) continue;
+            }
+            array.add(event.message());
+        }
+
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "batch");
+        message.add("events", array);
+        return message.toString();
+    }
+}
@@ -6,44 +6,112 @@ import com.google.gson.JsonParser;
 import com.playerroutes.PlayerRoutes;
 import com.playerroutes.data.PlayerSession;
 import com.playerroutes.data.RoutePoint;
+import com.playerroutes.jfr.BroadcastEvent;
+import com.playerroutes.metrics.LatencyHistogram;
+import com.playerroutes.metrics.MetricsRegistry;
+import com.playerroutes.metrics.PointLatency;
 import com.playerroutes.render.TileManager;
 import com.playerroutes.session.SessionManager;
 import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.IExtension;
 import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.protocols.IProtocol;
+import org.java_websocket.protocols.Protocol;
 
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.Level;
 
 import java.net.InetSocketAddress;
-import java.util.Set;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
 
 public class WebSocketServer extends org.java_websocket.server.WebSocketServer {
+    private static final int OUTBOUND_DRAIN_INTERVAL_MS = 100;
+
     private final String authToken;
     private final SessionManager sessionManager;
     private final MinecraftServer server;
-    private final Set<WebSocket> authenticatedClients = ConcurrentHashMap.newKeySet();
+    private final HubLink hubLink;
+    private final Map<WebSocket, ClientState> authenticatedClients = new ConcurrentHashMap<>();
+    private final UpdateBatcher batcher = new UpdateBatcher();
+    private final BinaryProtocol binaryProtocol = new BinaryProtocol();
+    private final SubscriptionIndex subscriptions = new SubscriptionIndex();
+    private final Broadcaster broadcaster = new Broadcaster();
+    private final SessionReplayer replayer;
+    private final SessionQueries queries = new SessionQueries();
+    private final ReplayLog replayLog;
+    // Identifies this server run; sequence numbers restart with it
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // Events are published and new clients brought up to date only on the broadcaster thread, so an
+    // init or resume always matches the events published before it and no event is missed or sent twice
+    private long lastSeq = 0; // broadcaster thread only
+    // Last point published per active session, null until its first point; broadcaster thread only.
+    // The sampler adds points before their events are published, so an init stops at these points.
+    private final Map<String, RoutePoint> publishedPoints = new HashMap<>();
+    private volatile long lastWorldTime = -1;
+    private final int batchIntervalMs;
+    private final int clientQueueLimit;
+    private final int slowClientTimeoutMs;
+    private final OutboundMetrics outboundMetrics = new OutboundMetrics();
+    private final PointLatency pointLatency = outboundMetrics.latency;
+    private final LongAdder messagesReceived = new LongAdder();
+    private final CompressionMetrics compressionMetrics;
+    private ScheduledExecutorService flushScheduler;
+
+    /**
+     * @param hubLink also receives every published event, or null when no hub is configured
+     */
+    public WebSocketServer(WebSocketSettings settings, SessionManager sessionManager, MinecraftServer server,
+                           HubLink hubLink) {
+        this(settings, sessionManager, server, hubLink, new CompressionMetrics());
+    }
 
-    public WebSocketServer(int port, String authToken, SessionManager sessionManager, MinecraftServer server) {
-        super(new InetSocketAddress(port));
-        this.authToken = authToken;
+    private WebSocketServer(WebSocketSettings settings, SessionManager sessionManager, MinecraftServer server,
+                            HubLink hubLink, CompressionMetrics compressionMetrics) {
+        super(new InetSocketAddress(settings.port()),
+                createDrafts(settings.compressionLevel(), settings.compressionThreshold(), compressionMetrics));
+        this.authToken = settings.token();
         this.sessionManager = sessionManager;
+        this.replayer = new SessionReplayer(sessionManager);
         this.server = server;
+        this.hubLink = hubLink;
+        this.batchIntervalMs = settings.batchIntervalMs();
+        this.clientQueueLimit = settings.clientQueueLimit();
+        this.slowClientTimeoutMs = settings.slowClientTimeoutMs();
+        this.compressionMetrics = compressionMetrics;
+        this.replayLog = new ReplayLog(settings.replayLogSize());
         setReuseAddr(true);
     }
 
+    private static List<Draft> createDrafts(int compressionLevel, int compressionThreshold, CompressionMetrics metrics) {
+        // Clients that don't offer permessage-deflate fall back to the draft's default extension
+        List<IExtension> extensions = compressionThreshold < 0
+                ? Collections.emptyList()
+                : List.of(new MeteredDeflateExtension(compressionLevel, compressionThreshold, metrics));
+        // Offer the binary subprotocol; the empty protocol keeps plain JSON clients working
+        return List.of(new Draft_6455(extensions, List.of(new Protocol(BinaryProtocol.NAME), new Protocol(""))));
+    }
+
     @Override
     public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        String resourceDesc = handshake.getResourceDescriptor();
         String token = handshake.getFieldValue("Authorization");
         if (token == null || token.isEmpty()) {
             // Check query parameter as fallback
-            String resourceDesc = handshake.getResourceDescriptor();
-            if (resourceDesc.contains("token=")) {
-                int start = resourceDesc.indexOf("token=") + 6;
-                int end = resourceDesc.indexOf("&", start);
-                token = end > 0 ? resourceDesc.substring(start, end) : resourceDesc.substring(start);
-            }
+            token = queryParam(resourceDesc, "token");
         } else if (token.startsWith("Bearer ")) {
             token = token.substring(7);
         }
@@ -52,36 +120,87 @@ public class WebSocketServer extends org.java_websocket.server.WebSocketServer {
         PlayerRoutes.LOGGER.info("Token received: '{}', expected: '{}'", token, authToken);
 
         if (authToken.equals(token)) {
-            authenticatedClients.add(conn);
-            PlayerRoutes.LOGGER.info("WebSocket client connected and authenticated: {}", conn.getRemoteSocketAddress());
-            sendInitialState(conn);
+            IProtocol protocol = conn.getProtocol();
+            boolean binary = protocol != null && BinaryProtocol.NAME.equals(protocol.getProvidedProtocol());
+            PlayerRoutes.LOGGER.info("WebSocket client connected and authenticated: {}{}", conn.getRemoteSocketAddress(),
+                    binary ? " (binary protocol)" : "");
+            OutboundQueue outbound = new OutboundQueue(this, conn, clientQueueLimit, slowClientTimeoutMs,
+                    outboundMetrics);
+            ClientState state = new ClientState(binary, outbound);
+            // Registered now so its messages are handled, but live events skip it until connectClient has run
+            authenticatedClients.put(conn, state);
+            subscriptions.add(conn);
+            String clientEpoch = queryParam(resourceDesc, "epoch");
+            String since = queryParam(resourceDesc, "since");
+            broadcaster.submit(() -> connectClient(conn, state, clientEpoch, since));
         } else {
             PlayerRoutes.LOGGER.warn("WebSocket client rejected (invalid token): {}", conn.getRemoteSocketAddress());
             conn.close(4001, "Invalid authentication token");
         }
     }
 
+    /**
+     * Runs on the broadcaster thread. Queues either the events the client missed since
+     * {@code since} or, when those are no longer in the replay log, a full init, then lets
+     * live events through to it.
+     */
+    private void connectClient(WebSocket conn, ClientState state, String clientEpoch, String since) {
+        if (authenticatedClients.get(conn) != state) return; // Closed before it was brought up
+
+        long sinceSeq = -1;
+        if (since != null && epoch.equals(clientEpoch)) {
+            try {
+                sinceSeq = Long.parseLong(since);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        List<ReplayLog.Entry> missed = sinceSeq >= 0 && sinceSeq <= lastSeq ? replayLog.since(sinceSeq) : null;
+        if (missed != null) {
+            sendResume(state, missed);
+            PlayerRoutes.LOGGER.info("WebSocket client {} resumed from seq {} ({} events)",
+                    conn.getRemoteSocketAddress(), sinceSeq, missed.size());
+        } else {
+            sendInitialState(state);
+        }
+        state.live = true;
+    }
+
+    private static String queryParam(String resourceDesc, String name) {
+        int query = resourceDesc.indexOf('?');
+        if (query < 0) return null;
+        for (String pair : resourceDesc.substring(query + 1).split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
     @Override
     public void onClose(WebSocket conn, int code, String reason, boolean remote) {
         authenticatedClients.remove(conn);
+        subscriptions.remove(conn);
+        replayer.disconnect(conn);
         PlayerRoutes.LOGGER.info("WebSocket client disconnected: {} (code: {}, reason: {})",
                 conn.getRemoteSocketAddress(), code, reason);
     }
 
     @Override
     public void onMessage(WebSocket conn, String message) {
-        if (!authenticatedClients.contains(conn)) {
+        ClientState state = authenticatedClients.get(conn);
+        if (state == null) {
             PlayerRoutes.LOGGER.warn("Ignoring message from unauthenticated client: {}", conn.getRemoteSocketAddress());
             return; // Ignore messages from unauthenticated clients
         }
-
-        PlayerRoutes.LOGGER.info("Received message from {}: {}", conn.getRemoteSocketAddress(), message);
+        messagesReceived.increment();
 
         try {
             JsonObject json = JsonParser.parseString(message).getAsJsonObject();
             String type = json.has("type") ? json.get("type").getAsString() : "";
 
-            PlayerRoutes.LOGGER.info("Message type: {}", type);
+            // Debug only: replay_ack and latency_ack arrive per chunk and per point
+            PlayerRoutes.LOGGER.debug("Received {} from {}", type, conn.getRemoteSocketAddress());
 
             switch (type) {
                 case "refresh_tiles":
@@ -94,6 +213,30 @@ public class WebSocketServer extends org.java_websocket.server.WebSocketServer {
                 case "execute_command":
                     handleExecuteCommand(conn, json);
                     break;
+                case "client_options":
+                    handleClientOptions(conn, state, json);
+                    break;
+                case "subscribe":
+                    handleSubscribe(conn, json);
+                    break;
+                case "replay_session":
+                    replayer.open(conn, json);
+                    break;
+                case "replay_ack":
+                    replayer.ack(conn, json);
+                    break;
+                case "replay_cancel":
+                    replayer.cancel(conn, json);
+                    break;
+                case "query_sessions":
+                    queries.handle(conn, json);
+                    break;
+                case "latency_ack":
+                    handleLatencyAck(json);
+                    break;
+                case "get_latency":
+                    conn.send(latencyStatsMessage().toString());
+                    break;
                 default:
                     PlayerRoutes.LOGGER.warn("Unknown message type from {}: {}", conn.getRemoteSocketAddress(), type);
             }
@@ -102,6 +245,62 @@ public class WebSocketServer extends org.java_websocket.server.WebSocketServer {
         }
     }
 
+    /**
+     * A client reports when it received a route point: {@code t} is the point's capture time and
+     * {@code receivedAt} the client's clock, both epoch milliseconds.
+     */
+    private void handleLatencyAck(JsonObject json) {
+        if (json.has("t") && json.has("receivedAt")) {
+            pointLatency.client.record((json.get("receivedAt").getAsLong() - json.get("t").getAsLong()) * 1000);
+        }
+    }
+
+    private JsonObject latencyStatsMessage() {
+        JsonObject stages = new JsonObject();
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : pointLatency.snapshot().entrySet()) {
+            LatencyHistogram.Snapshot snapshot = entry.getValue();
+            JsonObject stage = new JsonObject();
+            stage.addProperty("count", snapshot.count());
+            stage.addProperty("meanMs", snapshot.meanMicros() / 1000.0);
+            stage.addProperty("p50Ms", snapshot.percentile(0.50) / 1000.0);
+            stage.addProperty("p90Ms", snapshot.percentile(0.90) / 1000.0);
+            stage.addProperty("p99Ms", snapshot.percentile(0.99) / 1000.0);
+            stage.addProperty("p999Ms", snapshot.percentile(0.999) / 1000.0);
+            stage.addProperty("maxMs", snapshot.maxMicros() / 1000.0);
+            stages.add(entry.getKey(), stage);
+        }
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "latency_stats");
+        message.add("stages", stages);
+        return message;
+    }
+
+    private void handleClientOptions(WebSocket conn, ClientState state, JsonObject json) {
+        if (json.has("batch")) {
+            state.batch = json.get("batch").getAsBoolean();
+        }
+        if (json.has("conflate")) {
+            state.conflate = json.get("conflate").getAsBoolean();
+        }
+
+        JsonObject response = new JsonObject();
+        response.addProperty("type", "client_options_response");
+        response.addProperty("batch", state.batch);
+        response.addProperty("conflate", state.conflate);
+        response.addProperty("batchIntervalMs", batchIntervalMs);
+        conn.send(response.toString());
+    }
+
+    private void handleSubscribe(WebSocket conn, JsonObject json) {
+        Subscription subscription = Subscription.fromJson(json);
+        subscriptions.update(conn, subscription);
+
+        JsonObject response = new JsonObject();
+        response.addProperty("type", "subscribe_response");
+        response.add("subscription", subscription.toJson());
+        conn.send(response.toString());
+    }
+
     private void handleRefreshTiles(WebSocket conn, JsonObject json) {
         TileManager tileManager = PlayerRoutes.getInstance().getTileManager();
         if (tileManager == null) {
@@ -226,23 +425,214 @@ public class WebSocketServer extends org.java_websocket.server.WebSocketServer {
         PlayerRoutes.LOGGER.error("WebSocket error: {}", ex.getMessage());
         if (conn != null) {
             authenticatedClients.remove(conn);
+            subscriptions.remove(conn);
+            replayer.disconnect(conn);
         }
     }
 
     @Override
     public void onStart() {
+        broadcaster.start();
+        // Sessions opened before the broadcaster ran had their session_start dropped; inits still list them
+        broadcaster.submit(() -> {
+            for (PlayerSession session : sessionManager.getActiveSessions()) {
+                if (!publishedPoints.containsKey(session.getSessionId())) {
+                    publishedPoints.put(session.getSessionId(), session.getLastPoint());
+                }
+            }
+        });
+        replayer.start();
+        queries.start();
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "PlayerRoutes-WebSocketFlush");
+            t.setDaemon(true);
+            return t;
+        });
+        flushScheduler.scheduleAtFixedRate(this::flushBatches, batchIntervalMs, batchIntervalMs, TimeUnit.MILLISECONDS);
+        flushScheduler.scheduleAtFixedRate(this::drainOutboundQueues, OUTBOUND_DRAIN_INTERVAL_MS,
+                OUTBOUND_DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
         PlayerRoutes.LOGGER.info("WebSocket server started on port {}", getPort());
     }
 
-    private void sendInitialState(WebSocket conn) {
+    @Override
+    public void stop(int timeout) throws InterruptedException {
+        // Deliver events already published, e.g. the session ends sent during shutdown
+        broadcaster.stop();
+        replayer.stop();
+        queries.stop();
+        if (flushScheduler != null) {
+            flushScheduler.shutdown();
+            flushScheduler.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+            flushBatches();
+        }
+        super.stop(timeout);
+
+        CompressionMetrics.Stats stats = compressionMetrics.getStats();
+        if (stats.compressedFrames() > 0) {
+            PlayerRoutes.LOGGER.info("WebSocket compression: {} frames compressed to {}% ({} us avg), {} below threshold",
+                    stats.compressedFrames(), Math.round(stats.ratio() * 100), String.format("%.1f", stats.microsPerFrame()),
+                    stats.skippedFrames());
+        }
+        LatencyHistogram.Snapshot total = pointLatency.total.snapshot();
+        if (total.count() > 0) {
+            PlayerRoutes.LOGGER.info("Route point latency to socket write: p50 {} ms, p99 {} ms, max {} ms over {} writes",
+                    String.format("%.2f", total.percentile(0.50) / 1000.0), String.format("%.2f", total.percentile(0.99) / 1000.0),
+                    String.format("%.2f", total.maxMicros() / 1000.0), total.count());
+        }
+    }
+
+    public List<OutboundQueue.Stats> getClientQueueStats() {
+        List<OutboundQueue.Stats> stats = new ArrayList<>();
+        for (ClientState state : authenticatedClients.values()) {
+            stats.add(state.outbound.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Per-stage staleness of route points, see {@link PointLatency}.
+     */
+    public PointLatency getPointLatency() {
+        return pointLatency;
+    }
+
+    public long getSlowClientDisconnects() {
+        return outboundMetrics.slowDisconnects.sum();
+    }
+
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.gauge("playerroutes_ws_clients", "Authenticated WebSocket clients", authenticatedClients::size);
+        registry.counter("playerroutes_ws_messages_sent_total", "Live event messages handed to client sockets",
+                outboundMetrics.messagesSent::sum);
+        registry.counter("playerroutes_ws_payload_bytes_sent_total", "Uncompressed payload bytes of live event messages",
+                outboundMetrics.bytesSent::sum);
+        registry.counter("playerroutes_ws_messages_received_total", "Messages received from authenticated clients",
+                messagesReceived::sum);
+        registry.counter("playerroutes_ws_messages_dropped_total", "Time updates discarded for congested clients",
+                outboundMetrics.dropped::sum);
+        registry.counter("playerroutes_ws_messages_conflated_total", "Route points replaced by a newer one for congested clients",
+                outboundMetrics.conflated::sum);
+        registry.counter("playerroutes_ws_slow_client_disconnects_total", "Clients disconnected for not keeping up",
+                outboundMetrics.slowDisconnects::sum);
+        registry.gauge("playerroutes_ws_pending_broadcasts", "Events waiting for the broadcaster thread", broadcaster::size);
+        registry.gauge("playerroutes_ws_client_socket_depth", "Frames waiting in client socket write queues",
+                "stat=\"max\"", () -> maxOf(getClientQueueStats(), OutboundQueue.Stats::socketDepth));
+        registry.gauge("playerroutes_ws_client_socket_depth", "Frames waiting in client socket write queues",
+                "stat=\"sum\"", () -> sumOf(getClientQueueStats(), OutboundQueue.Stats::socketDepth));
+        registry.gauge("playerroutes_ws_client_held_messages", "Messages held back for congested clients",
+                "stat=\"max\"", () -> maxOf(getClientQueueStats(), OutboundQueue.Stats::held));
+        registry.gauge("playerroutes_ws_client_held_messages", "Messages held back for congested clients",
+                "stat=\"sum\"", () -> sumOf(getClientQueueStats(), OutboundQueue.Stats::held));
+        registry.counter("playerroutes_ws_compressed_frames_total", "Frames compressed with permessage-deflate",
+                () -> compressionMetrics.getStats().compressedFrames());
+        registry.counter("playerroutes_ws_compression_skipped_frames_total",
+                "Frames sent uncompressed to deflate clients because they were below the threshold",
+                () -> compressionMetrics.getStats().skippedFrames());
+        registry.counter("playerroutes_ws_compression_input_bytes_total", "Bytes passed to the deflater",
+                () -> compressionMetrics.getStats().bytesIn());
+        registry.counter("playerroutes_ws_compression_output_bytes_total", "Bytes produced by the deflater",
+                () -> compressionMetrics.getStats().bytesOut());
+
+        String name = "playerroutes_point_latency_seconds";
+        String help = "Route point staleness per stage, see the latency protocol messages";
+        registry.summary(name, help, "stage=\"record\"", pointLatency.record);
+        registry.summary(name, help, "stage=\"serialize\"", pointLatency.serialize);
+        registry.summary(name, help, "stage=\"write\"", pointLatency.write);
+        registry.summary(name, help, "stage=\"total\"", pointLatency.total);
+        registry.summary(name, help, "stage=\"client\"", pointLatency.client);
+    }
+
+    private static int maxOf(List<OutboundQueue.Stats> stats, ToIntFunction<OutboundQueue.Stats> field) {
+        int max = 0;
+        for (OutboundQueue.Stats s : stats) {
+            max = Math.max(max, field.applyAsInt(s));
+        }
+        return max;
+    }
+
+    private static long sumOf(List<OutboundQueue.Stats> stats, ToIntFunction<OutboundQueue.Stats> field) {
+        long sum = 0;
+        for (OutboundQueue.Stats s : stats) {
+            sum += field.applyAsInt(s);
+        }
+        return sum;
+    }
+
+    /**
+     * Hands held messages to clients whose sockets have drained and disconnects clients that
+     * have been congested for too long.
+     */
+    private void drainOutboundQueues() {
+        try {
+            for (ClientState state : authenticatedClients.values()) {
+                state.outbound.drain();
+            }
+        } catch (Exception e) {
+            PlayerRoutes.LOGGER.error("Failed to drain WebSocket queues: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends everything collected since the last flush to batching clients. Each batch variant
+     * (plain or conflated) is serialized and framed once.
+     */
+    private void flushBatches() {
+        try {
+            List<UpdateBatcher.Event> events = batcher.drain();
+            if (events.isEmpty()) return;
+
+            // Clients with the same subscription and options share one serialized batch
+            Map<Subscription, List<WebSocket>> fullGroups = new HashMap<>();
+            Map<Subscription, List<WebSocket>> conflatedGroups = new HashMap<>();
+            for (Map.Entry<WebSocket, ClientState> entry : authenticatedClients.entrySet()) {
+                ClientState state = entry.getValue();
+                if (state.live && state.batch && !state.binary) {
+                    WebSocket conn = entry.getKey();
+                    (state.conflate ? conflatedGroups : fullGroups)
+                            .computeIfAbsent(subscriptions.get(conn), k -> new ArrayList<>()).add(conn);
+                }
+            }
+
+            sendBatches(events, fullGroups, false);
+            sendBatches(events, conflatedGroups, true);
+        } catch (Exception e) {
+            PlayerRoutes.LOGGER.error("Failed to flush WebSocket batch: {}", e.getMessage(), e);
+        }
+    }
+
+    private void sendBatches(List<UpdateBatcher.Event> events, Map<Subscription, List<WebSocket>> groups, boolean conflate) {
+        for (Map.Entry<Subscription, List<WebSocket>> group : groups.entrySet()) {
+            Subscription subscription = group.getKey();
+            List<UpdateBatcher.Event> matching = subscription == Subscription.ALL ? events
+                    : events.stream().filter(e -> subscription.matches(e.topic())).toList();
+            if (!matching.isEmpty()) {
+                deliver(SharedMessage.text(UpdateBatcher.toBatchMessage(matching, conflate)),
+                        OutboundQueue.Kind.RELIABLE, null, group.getValue());
+            }
+        }
+    }
+
+    private void sendInitialState(ClientState state) {
         JsonObject message = new JsonObject();
         message.addProperty("type", "init");
 
+        boolean binary = state.binary;
+
         JsonArray sessionsArray = new JsonArray();
         for (PlayerSession session : sessionManager.getActiveSessions()) {
-            sessionsArray.add(session.toJson());
+            // A session whose session_start is still queued reaches the client with that event
+            if (!publishedPoints.containsKey(session.getSessionId())) continue;
+            JsonObject json = session.snapshotUpTo(publishedPoints.get(session.getSessionId())).toJson();
+            if (binary) {
+                json.addProperty("handle", binaryProtocol.handle(session.getSessionId()));
+            }
+            sessionsArray.add(json);
         }
         message.add("activeSessions", sessionsArray);
+        if (binary) {
+            message.addProperty("protocol", BinaryProtocol.NAME);
+            message.add("dimensions", binaryProtocol.dimensionsJson());
+        }
 
         // Add current world time from overworld
         if (server != null) {
@@ -253,17 +643,117 @@ public class WebSocketServer extends org.java_websocket.server.WebSocketServer {
             }
         }
 
-        conn.send(message.toString());
+        // Reconnect with ?epoch=<epoch>&since=<last seq seen> to resume instead of receiving init again
+        message.addProperty("epoch", epoch);
+        message.addProperty("seq", lastSeq);
+
+        state.outbound.offer(SharedMessage.text(message.toString()), OutboundQueue.Kind.RELIABLE, null);
     }
 
+    private void sendResume(ClientState state, List<ReplayLog.Entry> missed) {
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "resume");
+        message.addProperty("epoch", epoch);
+        message.addProperty("seq", lastSeq);
+        if (lastWorldTime >= 0) {
+            message.addProperty("worldTime", lastWorldTime);
+        }
+
+        JsonArray events = new JsonArray();
+        for (ReplayLog.Entry entry : missed) {
+            events.add(entry.message());
+        }
+        message.add("events", events);
+
+        if (state.binary) {
+            // Replayed events are JSON; the client still needs the handles for live binary frames
+            JsonObject handles = new JsonObject();
+            for (String sessionId : publishedPoints.keySet()) {
+                handles.addProperty(sessionId, binaryProtocol.handle(sessionId));
+            }
+            message.add("handles", handles);
+            message.add("dimensions", binaryProtocol.dimensionsJson());
+        }
+
+        state.outbound.offer(SharedMessage.text(message.toString()), OutboundQueue.Kind.RELIABLE, null);
+    }
+
+    /**
+     * Assigns the next sequence number to a live event and keeps it for resuming clients.
+     * Runs on the broadcaster thread.
+     */
+    private long publish(Topic topic, JsonObject message, boolean replayable) {
+        long seq = ++lastSeq;
+        message.addProperty("seq", seq);
+        if (replayable) {
+            replayLog.append(seq, topic, message);
+        }
+        if (hubLink != null) {
+            hubLink.offer(message);
+        }
+        return seq;
+    }
+
+    // Live events are published from the sampler thread and on shutdown; callers only enqueue,
+    // message building and fan-out run on the broadcaster thread
+
     public void broadcastSessionStart(PlayerSession session) {
+        // Copy now: the sampler keeps adding points, which are announced as route points of their own
+        PlayerSession snapshot = session.snapshot();
+        broadcaster.submit(() -> publishSessionStart(snapshot));
+    }
+
+    public void broadcastSessionEnd(PlayerSession session) {
+        broadcaster.submit(() -> publishSessionEnd(session));
+    }
+
+    public void broadcastWorldTime() {
+        if (server == null || authenticatedClients.isEmpty()) return;
+
+        ServerLevel overworld = server.getLevel(Level.OVERWORLD);
+        if (overworld == null) return;
+
+        broadcastWorldTime(overworld.getDayTime() % 24000);
+    }
+
+    public void broadcastWorldTime(long worldTime) {
+        broadcaster.submit(() -> publishWorldTime(worldTime));
+    }
+
+    /**
+     * @param captureNanos  {@code System.nanoTime()} when the position was read, 0 if unknown
+     * @param recordedNanos {@code System.nanoTime()} when the point was added to the session
+     */
+    public void broadcastRoutePoint(PlayerSession session, RoutePoint point, long worldTime,
+                                    long captureNanos, long recordedNanos) {
+        int pingMs = session.getPingMs();
+        boolean online = session.isActive();
+        broadcaster.submit(() -> publishRoutePoint(session, point, worldTime, pingMs, online, captureNanos, recordedNanos));
+    }
+
+    public int getPendingBroadcastCount() {
+        return broadcaster.size();
+    }
+
+    private void publishSessionStart(PlayerSession session) {
         JsonObject message = new JsonObject();
         message.addProperty("type", "session_start");
         message.add("session", session.toJson());
-        broadcastToAuthenticated(message.toString());
+        Topic topic = Topic.player(session.getPlayerUuid(), session.getPlayerName());
+
+        publishedPoints.put(session.getSessionId(), session.getLastPoint());
+        publish(topic, message, true);
+        Targets targets = targets(topic);
+        sendJson("session_start", session.getSessionId(), topic, message, targets);
+
+        if (!targets.binary().isEmpty()) {
+            JsonObject binaryMessage = message.deepCopy();
+            binaryMessage.getAsJsonObject("session").addProperty("handle", binaryProtocol.handle(session.getSessionId()));
+            deliver(SharedMessage.text(binaryMessage.toString()), OutboundQueue.Kind.RELIABLE, null, targets.binary());
+        }
     }
 
-    public void broadcastSessionEnd(PlayerSession session) {
+    private void publishSessionEnd(PlayerSession session) {
         JsonObject message = new JsonObject();
         message.addProperty("type", "session_end");
         message.addProperty("sessionId", session.getSessionId());
@@ -271,25 +761,44 @@ public class WebSocketServer extends org.java_websocket.server.WebSocketServer {
         message.addProperty("playerName", session.getPlayerName());
         message.addProperty("endedAt", session.getEndedAt());
         message.add("stats", session.getStats().toJson());
-        broadcastToAuthenticated(message.toString());
-    }
+        Topic topic = Topic.player(session.getPlayerUuid(), session.getPlayerName());
 
-    public void broadcastWorldTime() {
-        if (server == null || authenticatedClients.isEmpty()) return;
+        publishedPoints.remove(session.getSessionId());
+        publish(topic, message, true);
+        Targets targets = targets(topic);
+        sendJson("session_end", session.getSessionId(), topic, message, targets);
 
-        ServerLevel overworld = server.getLevel(Level.OVERWORLD);
-        if (overworld == null) return;
+        if (!targets.binary().isEmpty()) {
+            JsonObject binaryMessage = message.deepCopy();
+            binaryMessage.addProperty("handle", binaryProtocol.handle(session.getSessionId()));
+            deliver(SharedMessage.text(binaryMessage.toString()), OutboundQueue.Kind.RELIABLE, null, targets.binary());
+        }
+        binaryProtocol.release(session.getSessionId());
+    }
+
+    private void publishWorldTime(long worldTime) {
+        lastWorldTime = worldTime;
+        if (authenticatedClients.isEmpty()) return;
 
-        long worldTime = overworld.getDayTime() % 24000;
         JsonObject message = new JsonObject();
-        message.addProperty("type", "time_update");
+        message.addProperty("type", UpdateBatcher.TIME_UPDATE);
         message.addProperty("worldTime", worldTime);
-        broadcastToAuthenticated(message.toString());
+
+        // Not replayed: a resuming client gets the current world time instead
+        long seq = publish(Topic.ALL, message, false);
+        Targets targets = targets(Topic.ALL);
+        sendJson(UpdateBatcher.TIME_UPDATE, null, Topic.ALL, message, targets);
+
+        if (!targets.binary().isEmpty()) {
+            deliver(SharedMessage.binary(binaryProtocol.timeUpdate(seq, worldTime)),
+                    OutboundQueue.Kind.DROPPABLE, null, targets.binary());
+        }
     }
 
-    public void broadcastRoutePoint(PlayerSession session, RoutePoint point, long worldTime) {
+    private void publishRoutePoint(PlayerSession session, RoutePoint point, long worldTime, int pingMs, boolean online,
+                                   long captureNanos, long recordedNanos) {
         JsonObject message = new JsonObject();
-        message.addProperty("type", "route_point");
+        message.addProperty("type", UpdateBatcher.ROUTE_POINT);
         message.addProperty("sessionId", session.getSessionId());
         message.addProperty("playerUuid", session.getPlayerUuid().toString());
         message.addProperty("playerName", session.getPlayerName());
@@ -297,18 +806,131 @@ public class WebSocketServer extends org.java_websocket.server.WebSocketServer {
         message.addProperty("worldTime", worldTime); // 0-24000 ticks
 
         JsonObject conn = new JsonObject();
-        conn.addProperty("online", session.isActive());
-        conn.addProperty("pingMs", session.getPingMs());
+        conn.addProperty("online", online);
+        conn.addProperty("pingMs", pingMs);
         message.add("conn", conn);
 
-        broadcastToAuthenticated(message.toString());
+        Topic topic = new Topic(session.getPlayerUuid(), session.getPlayerName(), point.dimension(), point.x(), point.z());
+
+        long serializedNanos = System.nanoTime();
+        if (captureNanos != 0) {
+            pointLatency.record.recordNanos(recordedNanos - captureNanos);
+            pointLatency.serialize.recordNanos(serializedNanos - recordedNanos);
+        } else {
+            serializedNanos = 0;
+        }
+
+        // New dimensions go to every binary client whatever its subscription, and into later inits
+        ByteBuffer dimensionRecord = binaryProtocol.registerDimension(point.dimension());
+        if (dimensionRecord != null) {
+            List<WebSocket> binaryClients = binaryClients();
+            if (!binaryClients.isEmpty()) {
+                deliver(SharedMessage.binary(dimensionRecord), OutboundQueue.Kind.RELIABLE, null, binaryClients);
+            }
+        }
+
+        // Only sessions whose start was published; an ended one was removed by its session_end
+        publishedPoints.replace(session.getSessionId(), point);
+        long seq = publish(topic, message, true);
+        Targets targets = targets(topic);
+        if (!targets.direct().isEmpty()) {
+            deliver(SharedMessage.text(message.toString()).timed(captureNanos, serializedNanos),
+                    OutboundQueue.Kind.CONFLATABLE, session.getSessionId(), targets.direct());
+        }
+        if (targets.batched()) {
+            batcher.add(UpdateBatcher.ROUTE_POINT, session.getSessionId(), topic, message);
+        }
+
+        if (!targets.binary().isEmpty()) {
+            ByteBuffer record = binaryProtocol.routePoint(seq, binaryProtocol.handle(session.getSessionId()),
+                    session.getStartedAt(), point, pingMs, worldTime, online);
+            deliver(SharedMessage.binary(record).timed(captureNanos, serializedNanos), OutboundQueue.Kind.CONFLATABLE,
+                    session.getSessionId(), targets.binary());
+        }
     }
 
-    private void broadcastToAuthenticated(String message) {
-        for (WebSocket client : authenticatedClients) {
-            if (client.isOpen()) {
-                client.send(message);
+    private List<WebSocket> binaryClients() {
+        List<WebSocket> clients = new ArrayList<>();
+        for (Map.Entry<WebSocket, ClientState> entry : authenticatedClients.entrySet()) {
+            if (entry.getValue().binary && entry.getValue().live) {
+                clients.add(entry.getKey());
             }
         }
+        return clients;
+    }
+
+    /**
+     * Clients subscribed to an event, split by how they receive it.
+     */
+    private record Targets(List<WebSocket> direct, List<WebSocket> binary, boolean batched) {
+        boolean isEmpty() {
+            return direct.isEmpty() && binary.isEmpty() && !batched;
+        }
+    }
+
+    private Targets targets(Topic topic) {
+        List<WebSocket> direct = new ArrayList<>();
+        List<WebSocket> binary = new ArrayList<>();
+        boolean batched = false;
+        for (WebSocket conn : subscriptions.match(topic)) {
+            ClientState state = authenticatedClients.get(conn);
+            if (state == null || !state.live) continue;
+            if (state.binary) {
+                binary.add(conn);
+            } else if (state.batch) {
+                batched = true;
+            } else {
+                direct.add(conn);
+            }
+        }
+        return new Targets(direct, binary, batched);
+    }
+
+    /**
+     * Sends an event right away to JSON clients that did not opt into batching and queues it for
+     * the next batch flush if any subscribed client did. The message must not be modified afterwards.
+     * Binary protocol clients are served by the callers.
+     */
+    private void sendJson(String type, String sessionId, Topic topic, JsonObject message, Targets targets) {
+        if (!targets.direct().isEmpty()) {
+            deliver(SharedMessage.text(message.toString()), kindOf(type), sessionId, targets.direct());
+        }
+        if (targets.batched()) {
+            batcher.add(type, sessionId, topic, message);
+        }
+    }
+
+    /**
+     * Route points only matter as the latest position per session and time updates are resent
+     * periodically, so a congested client can do without some of them. Everything else is kept.
+     */
+    private static OutboundQueue.Kind kindOf(String type) {
+        return switch (type) {
+            case UpdateBatcher.ROUTE_POINT -> OutboundQueue.Kind.CONFLATABLE;
+            case UpdateBatcher.TIME_UPDATE -> OutboundQueue.Kind.DROPPABLE;
+            default -> OutboundQueue.Kind.RELIABLE;
+        };
+    }
+
+    /**
+     * Offers a live event to each client's outbound queue; the message is framed once for all of them.
+     */
+    private void deliver(SharedMessage message, OutboundQueue.Kind kind, String conflationKey, List<WebSocket> clients) {
+        BroadcastEvent event = new BroadcastEvent();
+        event.begin();
+        for (WebSocket conn : clients) {
+            ClientState state = authenticatedClients.get(conn);
+            if (state != null) {
+                state.outbound.offer(message, kind, conflationKey);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = kind.name();
+            event.sessionId = conflationKey;
+            event.clients = clients.size();
+            event.payloadBytes = message.payloadBytes();
+            event.commit();
+        }
     }
 }
@@ -0,0 +1,36 @@
+package com.playerroutes.network;
+
+import com.playerroutes.config.ModConfig;
+
+/**
+ * WebSocket server parameters, read from config once at startup.
+ *
+ * @param compressionThreshold messages smaller than this many bytes are not compressed;
+ *                             negative disables permessage-deflate
+ * @param replayLogSize        live events kept for clients that reconnect with {@code since}
+ * @param clientQueueLimit     messages a client may have queued before updates are conflated or dropped
+ * @param slowClientTimeoutMs  how long a client may stay over the queue limit before it is disconnected
+ */
+public record WebSocketSettings(
+        int port,
+        String token,
+        int batchIntervalMs,
+        int compressionLevel,
+        int compressionThreshold,
+        int replayLogSize,
+        int clientQueueLimit,
+        int slowClientTimeoutMs
+) {
+    public static WebSocketSettings fromConfig() {
+        return new WebSocketSettings(
+                ModConfig.WEBSOCKET_PORT.get(),
+                ModConfig.WEBSOCKET_TOKEN.get(),
+                ModConfig.WS_BATCH_INTERVAL_MS.get(),
+                ModConfig.WS_COMPRESSION_LEVEL.get(),
+                ModConfig.WS_COMPRESSION.get() ? ModConfig.WS_COMPRESSION_THRESHOLD.get() : -1,
+                ModConfig.WS_REPLAY_LOG_SIZE.get(),
+                ModConfig.WS_CLIENT_QUEUE_LIMIT.get(),
+                ModConfig.WS_SLOW_CLIENT_TIMEOUT_MS.get()
+        );
+    }
+}
@@ -1,6 +1,7 @@
 package com.playerroutes.render;
 
 import com.playerroutes.PlayerRoutes;
+import com.playerroutes.jfr.TileRenderEvent;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.world.level.ChunkPos;
@@ -28,8 +29,13 @@ public class ChunkRenderer {
     // Height array for hillshading (stores heights for current and previous row)
     private static final int[][] heightBuffer = new int[CHUNK_SIZE + 1][CHUNK_SIZE + 1];
 
-    public static boolean renderChunk(Level level, ChunkPos chunkPos, Path outputPath) {
+    /**
+     * @param event receives the duration of each phase
+     */
+    public static boolean renderChunk(Level level, ChunkPos chunkPos, Path outputPath, TileRenderEvent event) {
         try {
+            long phaseStart = System.nanoTime();
+
             // Load chunk from disk if not in memory
             ChunkAccess chunk = level.getChunk(chunkPos.x, chunkPos.z, ChunkStatus.FULL, true);
             if (chunk == null) {
@@ -43,6 +49,9 @@ public class ChunkRenderer {
             } catch (Exception ignored) {}
 
             BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+            long now = System.nanoTime();
+            event.loadTime = now - phaseStart;
+            phaseStart = now;
 
             // First pass: collect heights for hillshading
             for (int x = 0; x <= CHUNK_SIZE; x++) {
@@ -58,6 +67,9 @@ public class ChunkRenderer {
                     }
                 }
             }
+            now = System.nanoTime();
+            event.heightTime = now - phaseStart;
+            phaseStart = now;
 
             // Second pass: render with colors and shading
             for (int x = 0; x < CHUNK_SIZE; x++) {
@@ -105,6 +117,9 @@ public class ChunkRenderer {
                     fillBlockPixels(image, x, z, color);
                 }
             }
+            now = System.nanoTime();
+            event.colorTime = now - phaseStart;
+            phaseStart = now;
 
             // Ensure directory exists
             Files.createDirectories(outputPath.getParent());
@@ -112,6 +127,7 @@ public class ChunkRenderer {
             // Write PNG
             File outputFile = outputPath.toFile();
             ImageIO.write(image, "PNG", outputFile);
+            event.writeTime = System.nanoTime() - phaseStart;
 
             return true;
         } catch (IOException e) {
@@ -1,6 +1,9 @@
 package com.playerroutes.render;
 
 import com.playerroutes.PlayerRoutes;
+import com.playerroutes.jfr.TileRenderEvent;
+import com.playerroutes.metrics.LatencyHistogram;
+import com.playerroutes.metrics.MetricsRegistry;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
@@ -13,6 +16,7 @@ import java.nio.file.Paths;
 import java.nio.file.Files;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 
 public class TileManager {
     private final Path tilesBasePath;
@@ -25,6 +29,11 @@ public class TileManager {
     private ScheduledExecutorService scheduler;
     private volatile boolean running = false;
 
+    // Metrics
+    private final LongAdder rendersCompleted = new LongAdder();
+    private final LongAdder renderFailures = new LongAdder();
+    private final LatencyHistogram renderTime = new LatencyHistogram();
+
     // Config
     private static final int HIGH_PRIORITY_PER_TICK = 8;  // Chunks near players
     private static final int LOW_PRIORITY_PER_TICK = 4;   // Background chunks
@@ -180,12 +189,28 @@ public class TileManager {
                 }
 
                 Path tilePath = getTilePath(task.dimension, task.pos);
-                boolean success = ChunkRenderer.renderChunk(level, task.pos, tilePath);
+                TileRenderEvent event = new TileRenderEvent();
+                event.begin();
+                long start = System.nanoTime();
+                boolean success = ChunkRenderer.renderChunk(level, task.pos, tilePath, event);
+                renderTime.recordNanos(System.nanoTime() - start);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.dimension = task.dimension;
+                    event.chunkX = task.pos.x;
+                    event.chunkZ = task.pos.z;
+                    event.success = success;
+                    event.commit();
+                }
 
                 if (success) {
                     renderedTiles.add(key);
+                    rendersCompleted.increment();
+                } else {
+                    renderFailures.increment();
                 }
             } catch (Exception e) {
+                renderFailures.increment();
                 PlayerRoutes.LOGGER.debug("Failed to process tile {}: {}", key, e.getMessage());
             }
         });
@@ -225,6 +250,18 @@ public class TileManager {
         return renderedTiles.size();
     }
 
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.gauge("playerroutes_tile_queue_size", "Tiles waiting to be rendered",
+                "priority=\"high\"", highPriorityQueue::size);
+        registry.gauge("playerroutes_tile_queue_size", "Tiles waiting to be rendered",
+                "priority=\"low\"", lowPriorityQueue::size);
+        registry.gauge("playerroutes_tiles_rendered", "Tiles known to be rendered on disk", renderedTiles::size);
+        registry.counter("playerroutes_tile_renders_total", "Tile renders that wrote an image", rendersCompleted::sum);
+        registry.counter("playerroutes_tile_render_failures_total", "Tile renders that failed or produced nothing",
+                renderFailures::sum);
+        registry.summary("playerroutes_tile_render_seconds", "Time to render one tile on the server thread", renderTime);
+    }
+
     public int getQueueSize() {
         return highPriorityQueue.size() + lowPriorityQueue.size();
     }
@@ -0,0 +1,62 @@
+package com.playerroutes.session;
+
+import com.playerroutes.data.RoutePoint;
+
+/**
+ * Velocity-aware sampling. From each recorded point the player is assumed to keep the
+ * velocity and heading measured at that moment; a new point is recorded once the real
+ * position leaves a corridor of {@code toleranceBlocks} around that prediction.
+ * Straight fast travel therefore costs few points, turns and speed changes get dense
+ * points, and slow wandering within the tolerance is not recorded at all.
+ */
+class DeadReckoningPolicy implements SamplingPolicy {
+    // 100 blocks/s, well above elytra speed; anything faster is a teleport, not travel
+    private static final double MAX_SPEED_SQ = 0.1 * 0.1;
+
+    private final double toleranceSq;
+    private final long maxIntervalMs;
+
+    DeadReckoningPolicy(double toleranceBlocks, long maxIntervalMs) {
+        this.toleranceSq = toleranceBlocks * toleranceBlocks;
+        this.maxIntervalMs = maxIntervalMs;
+    }
+
+    @Override
+    public boolean shouldRecord(TrackedPlayer tracked, long time, double x, double z, int dimension) {
+        RoutePoint anchor = tracked.lastRecordedPoint;
+        long sinceAnchor = time - tracked.lastRecordTime;
+
+        boolean record;
+        if (dimension != tracked.lastDimensionId || sinceAnchor >= maxIntervalMs) {
+            record = true;
+        } else {
+            double predictedX = anchor.x() + tracked.velocityX * sinceAnchor;
+            double predictedZ = anchor.z() + tracked.velocityZ * sinceAnchor;
+            double ex = x - predictedX;
+            double ez = z - predictedZ;
+            record = ex * ex + ez * ez > toleranceSq;
+        }
+
+        if (record) {
+            // Re-anchor with the velocity between the previous raw sample and this one
+            long dt = time - tracked.previousSampleTime;
+            double vx = 0;
+            double vz = 0;
+            if (tracked.previousSampleTime > 0 && dt > 0 && dimension == tracked.lastDimensionId) {
+                vx = (x - tracked.previousSampleX) / dt;
+                vz = (z - tracked.previousSampleZ) / dt;
+                if (vx * vx + vz * vz > MAX_SPEED_SQ) {
+                    vx = 0;
+                    vz = 0;
+                }
+            }
+            tracked.velocityX = vx;
+            tracked.velocityZ = vz;
+        }
+
+        tracked.previousSampleX = x;
+        tracked.previousSampleZ = z;
+        tracked.previousSampleTime = time;
+        return record;
+    }
+}
@@ -0,0 +1,26 @@
+package com.playerroutes.session;
+
+import com.playerroutes.data.RoutePoint;
+
+/**
+ * Records when the player has moved a fixed XZ distance, changed dimension, or been idle too long.
+ */
+class FixedDistancePolicy implements SamplingPolicy {
+    private final double minMoveSq;
+    private final long maxIdleIntervalMs;
+
+    FixedDistancePolicy(int minMoveBlocks, long maxIdleIntervalMs) {
+        this.minMoveSq = (double) minMoveBlocks * minMoveBlocks;
+        this.maxIdleIntervalMs = maxIdleIntervalMs;
+    }
+
+    @Override
+    public boolean shouldRecord(TrackedPlayer tracked, long time, double x, double z, int dimension) {
+        RoutePoint lastPoint = tracked.lastRecordedPoint;
+        double dx = x - lastPoint.x();
+        double dz = z - lastPoint.z();
+        return dx * dx + dz * dz >= minMoveSq
+                || dimension != tracked.lastDimensionId
+                || time - tracked.lastRecordTime >= maxIdleIntervalMs;
+    }
+}
@@ -0,0 +1,206 @@
+package com.playerroutes.session;
+
+import com.playerroutes.PlayerRoutes;
+import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.network.WebSocketServer;
+import com.playerroutes.storage.StorageProvider;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Sampler thread: consumes raw samples from the ring buffer and does everything that
+ * does not need the game world - recording decisions, session updates and saves. Broadcasts
+ * are only queued here; the WebSocket server builds and sends them on its own thread.
+ */
+class SampleProcessor {
+    private static final long IDLE_PARK_NANOS = 50_000_000L; // one tick
+
+    private final SampleRingBuffer ring;
+    private final StorageProvider storageProvider;
+    private final SamplingPolicy policy;
+    private final Supplier<WebSocketServer> webSocketServer;
+    private final Map<String, PlayerSession> endingSessions;
+    private final SampleRingBuffer.Reader reader = this::onRecord;
+
+    // Sampler thread only
+    private TrackedPlayer[] slots = new TrackedPlayer[64];
+
+    // Dimension names by id, copy-on-write from the server thread
+    private volatile String[] dimensionNames = new String[0];
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    final LongAdder samplesProcessed = new LongAdder();
+    final LongAdder pointsRecorded = new LongAdder();
+    final LongAdder sessionsStarted = new LongAdder();
+    final LongAdder sessionsEnded = new LongAdder();
+
+    SampleProcessor(SampleRingBuffer ring, StorageProvider storageProvider, SamplingPolicy policy,
+                    Supplier<WebSocketServer> webSocketServer, Map<String, PlayerSession> endingSessions) {
+        this.ring = ring;
+        this.storageProvider = storageProvider;
+        this.policy = policy;
+        this.webSocketServer = webSocketServer;
+        this.endingSessions = endingSessions;
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this::run, "PlayerRoutes-Sampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the thread after it has processed everything already published.
+     */
+    void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Arrays.fill(slots, null);
+    }
+
+    /**
+     * Wakes the sampler after the server thread has published a batch.
+     */
+    void signal() {
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    void registerDimension(int id, String name) {
+        String[] names = dimensionNames;
+        if (id >= names.length) {
+            names = Arrays.copyOf(names, id + 1);
+        } else {
+            names = names.clone();
+        }
+        names[id] = name;
+        dimensionNames = names;
+    }
+
+    private void run() {
+        while (running) {
+            if (ring.drain(reader) == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+        // Final pass so lifecycle records published before stop() are not lost
+        ring.drain(reader);
+    }
+
+    private void onRecord(byte kind, int slot, long time, long captureNanos, double x, double y, double z,
+                          int dimension, int ping, long worldTime, Object payload) {
+        try {
+            switch (kind) {
+                case SampleRingBuffer.KIND_SAMPLE -> onSample(slot, time, captureNanos, x, y, z, dimension, ping, worldTime);
+                case SampleRingBuffer.KIND_OPEN -> onOpen((TrackedPlayer) payload, time, dimension);
+                case SampleRingBuffer.KIND_CLOSE -> onClose(slot);
+                case SampleRingBuffer.KIND_WORLD_TIME -> broadcastWorldTime(worldTime);
+                default -> PlayerRoutes.LOGGER.warn("Unknown sample record kind {}", kind);
+            }
+        } catch (Exception e) {
+            PlayerRoutes.LOGGER.error("Failed to process sample record: {}", e.getMessage(), e);
+        }
+    }
+
+    private void onOpen(TrackedPlayer tracked, long time, int dimension) {
+        if (tracked.slot >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slots.length * 2, tracked.slot + 1));
+        }
+        slots[tracked.slot] = tracked;
+
+        PlayerSession session = tracked.session;
+        tracked.lastRecordedPoint = session.getLastPoint();
+        tracked.lastRecordTime = time;
+        tracked.lastDimensionId = dimension;
+
+        storageProvider.saveSession(session);
+        sessionsStarted.increment();
+        PlayerRoutes.LOGGER.info("Started session {} for player {}", session.getSessionId(), session.getPlayerName());
+        broadcastSessionStart(session);
+    }
+
+    private void onClose(int slot) {
+        TrackedPlayer tracked = slot < slots.length ? slots[slot] : null;
+        if (tracked == null) return;
+        slots[slot] = null;
+
+        PlayerSession session = tracked.session;
+        session.endSession();
+        storageProvider.saveSession(session);
+        // Storage answers lookups from here on
+        endingSessions.remove(session.getSessionId());
+        sessionsEnded.increment();
+        PlayerRoutes.LOGGER.info("Ended session {} for player {}", session.getSessionId(), session.getPlayerName());
+        broadcastSessionEnd(session);
+    }
+
+    private void onSample(int slot, long time, long captureNanos, double x, double y, double z, int dimension,
+                          int ping, long worldTime) {
+        TrackedPlayer tracked = slot < slots.length ? slots[slot] : null;
+        if (tracked == null) return;
+
+        PlayerSession session = tracked.session;
+        session.updatePing(ping);
+        samplesProcessed.increment();
+
+        boolean shouldRecord = tracked.lastRecordedPoint == null
+                || policy.shouldRecord(tracked, time, x, z, dimension);
+
+        if (shouldRecord) {
+            RoutePoint point = new RoutePoint(time, x, y, z, dimensionNames[dimension]);
+            session.addPoint(point);
+            long recordedNanos = System.nanoTime();
+            pointsRecorded.increment();
+            tracked.lastRecordedPoint = point;
+            tracked.lastRecordTime = time;
+            tracked.lastDimensionId = dimension;
+            broadcastRoutePoint(session, point, worldTime, captureNanos, recordedNanos);
+        }
+    }
+
+    private void broadcastSessionStart(PlayerSession session) {
+        var wsServer = webSocketServer.get();
+        if (wsServer != null) {
+            wsServer.broadcastSessionStart(session);
+        }
+    }
+
+    private void broadcastSessionEnd(PlayerSession session) {
+        var wsServer = webSocketServer.get();
+        if (wsServer != null) {
+            wsServer.broadcastSessionEnd(session);
+        }
+    }
+
+    private void broadcastRoutePoint(PlayerSession session, RoutePoint point, long worldTime,
+                                     long captureNanos, long recordedNanos) {
+        var wsServer = webSocketServer.get();
+        if (wsServer != null) {
+            wsServer.broadcastRoutePoint(session, point, worldTime, captureNanos, recordedNanos);
+        }
+    }
+
+    private void broadcastWorldTime(long worldTime) {
+        var wsServer = webSocketServer.get();
+        if (wsServer != null) {
+            wsServer.broadcastWorldTime(worldTime);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.playerroutes.session;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preallocated single-producer single-consumer ring of raw player samples and
+ * session lifecycle records. The server thread writes, the sampler thread reads;
+ * records are stored column-wise so publishing a sample allocates nothing.
+ */
+class SampleRingBuffer {
+    static final byte KIND_SAMPLE = 0;
+    static final byte KIND_OPEN = 1;
+    static final byte KIND_CLOSE = 2;
+    static final byte KIND_WORLD_TIME = 3;
+
+    private final int mask;
+    private final byte[] kind;
+    private final int[] slot;
+    private final long[] time;
+    // System.nanoTime() when a sample was read, for latency measurement
+    private final long[] captureNanos;
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+    private final int[] dimension;
+    private final int[] ping;
+    private final long[] worldTime;
+    private final Object[] payload;
+
+    // Next index to write (producer) and to read (consumer); written with release semantics
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    // Producer-local cache of head to avoid reading the shared counter on every offer
+    private long cachedHead;
+
+    // Lifecycle records that did not fit, oldest first (producer only). While any are waiting,
+    // nothing else is published, so no record overtakes them.
+    private final ArrayDeque<Control> overflow = new ArrayDeque<>();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    SampleRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.kind = new byte[size];
+        this.slot = new int[size];
+        this.time = new long[size];
+        this.captureNanos = new long[size];
+        this.x = new double[size];
+        this.y = new double[size];
+        this.z = new double[size];
+        this.dimension = new int[size];
+        this.ping = new int[size];
+        this.worldTime = new long[size];
+        this.payload = new Object[size];
+    }
+
+    /**
+     * Publishes a position sample, or drops it if the sampler has fallen a full ring behind or
+     * lifecycle records are still waiting for space.
+     */
+    boolean offerSample(int playerSlot, long timestamp, double px, double py, double pz,
+                        int dimensionId, int pingMs, long dayTime) {
+        if (!flushOverflow() || !hasCapacity(tail.get())) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        long t = tail.get();
+        int i = (int) t & mask;
+        kind[i] = KIND_SAMPLE;
+        slot[i] = playerSlot;
+        time[i] = timestamp;
+        captureNanos[i] = System.nanoTime();
+        x[i] = px;
+        y[i] = py;
+        z[i] = pz;
+        dimension[i] = dimensionId;
+        ping[i] = pingMs;
+        worldTime[i] = dayTime;
+        payload[i] = null;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Publishes a lifecycle record without ever waiting for the consumer. Opens and closes must
+     * not be lost, so when the ring is full they are held in an overflow queue and moved in by
+     * later offers or {@link #flushOverflow}. World time updates are resent periodically and are
+     * dropped instead.
+     */
+    void offerControl(byte recordKind, int playerSlot, long timestamp, int dimensionId, long dayTime, Object data) {
+        if (flushOverflow() && hasCapacity(tail.get())) {
+            write(recordKind, playerSlot, timestamp, dimensionId, dayTime, data);
+        } else if (recordKind == KIND_WORLD_TIME) {
+            dropped.incrementAndGet();
+        } else {
+            overflow.add(new Control(recordKind, playerSlot, timestamp, dimensionId, dayTime, data));
+        }
+    }
+
+    /**
+     * Moves held lifecycle records into the ring as far as it has space. Producer only.
+     *
+     * @return true when no records are left waiting
+     */
+    boolean flushOverflow() {
+        Control c;
+        while ((c = overflow.peek()) != null) {
+            if (!hasCapacity(tail.get())) {
+                return false;
+            }
+            write(c.kind, c.slot, c.time, c.dimension, c.worldTime, c.payload);
+            overflow.poll();
+        }
+        return true;
+    }
+
+    boolean hasOverflow() {
+        return !overflow.isEmpty();
+    }
+
+    private void write(byte recordKind, int playerSlot, long timestamp, int dimensionId, long dayTime, Object data) {
+        long t = tail.get();
+        int i = (int) t & mask;
+        kind[i] = recordKind;
+        slot[i] = playerSlot;
+        time[i] = timestamp;
+        dimension[i] = dimensionId;
+        worldTime[i] = dayTime;
+        payload[i] = data;
+        tail.lazySet(t + 1);
+    }
+
+    private boolean hasCapacity(long t) {
+        if (t - cachedHead <= mask) {
+            return true;
+        }
+        cachedHead = head.get();
+        return t - cachedHead <= mask;
+    }
+
+    /**
+     * Hands every published record to the reader, then frees their slots. Consumer thread only.
+     */
+    int drain(Reader reader) {
+        long h = head.get();
+        long t = tail.get();
+        if (h == t) {
+            return 0;
+        }
+        for (long seq = h; seq < t; seq++) {
+            int i = (int) seq & mask;
+            reader.read(kind[i], slot[i], time[i], captureNanos[i], x[i], y[i], z[i], dimension[i], ping[i],
+                    worldTime[i], payload[i]);
+            payload[i] = null;
+        }
+        head.lazySet(t);
+        return (int) (t - h);
+    }
+
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private record Control(byte kind, int slot, long time, int dimension, long worldTime, Object payload) {}
+
+    interface Reader {
+        void read(byte kind, int slot, long time, long captureNanos, double x, double y, double z,
+                  int dimension, int ping, long worldTime, Object payload);
+    }
+}
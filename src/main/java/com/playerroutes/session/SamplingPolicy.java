@@ -0,0 +1,12 @@
+package com.playerroutes.session;
+
+/**
+ * Decides which raw samples become recorded route points. Runs on the sampler thread.
+ */
+interface SamplingPolicy {
+    /**
+     * Called for every raw sample of a player that already has a recorded point.
+     * Implementations may update their per-player state on {@code tracked}.
+     */
+    boolean shouldRecord(TrackedPlayer tracked, long time, double x, double z, int dimension);
+}
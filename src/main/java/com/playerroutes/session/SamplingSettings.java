@@ -0,0 +1,47 @@
+package com.playerroutes.session;
+
+import com.playerroutes.config.ModConfig;
+
+/**
+ * Sampling parameters, read from config once when the session manager is created.
+ *
+ * @param adaptive               use {@link DeadReckoningPolicy} instead of {@link FixedDistancePolicy}
+ * @param sampleIntervalMs       how often each player's position is read in fixed mode
+ * @param minMoveBlocks          fixed mode: XZ distance that triggers a new point
+ * @param maxIdleIntervalMs      longest gap between recorded points in either mode
+ * @param adaptiveIntervalMs     how often each player's position is read in adaptive mode
+ * @param adaptiveToleranceBlocks adaptive mode: allowed drift from the predicted position
+ */
+public record SamplingSettings(
+        boolean adaptive,
+        int sampleIntervalMs,
+        int minMoveBlocks,
+        int maxIdleIntervalMs,
+        int adaptiveIntervalMs,
+        double adaptiveToleranceBlocks
+) {
+    public static SamplingSettings fromConfig() {
+        return new SamplingSettings(
+                "adaptive".equalsIgnoreCase(ModConfig.SAMPLING_MODE.get()),
+                ModConfig.SAMPLE_INTERVAL_MS.get(),
+                ModConfig.MIN_MOVE_BLOCKS.get(),
+                ModConfig.MAX_IDLE_INTERVAL_MS.get(),
+                ModConfig.ADAPTIVE_SAMPLE_INTERVAL_MS.get(),
+                ModConfig.ADAPTIVE_TOLERANCE_BLOCKS.get()
+        );
+    }
+
+    /**
+     * Server ticks between two reads of the same player.
+     */
+    public int ticksPerSample() {
+        int intervalMs = adaptive ? adaptiveIntervalMs : sampleIntervalMs;
+        return Math.max(1, intervalMs / 50); // 50ms per tick
+    }
+
+    SamplingPolicy createPolicy() {
+        return adaptive
+                ? new DeadReckoningPolicy(adaptiveToleranceBlocks, maxIdleIntervalMs)
+                : new FixedDistancePolicy(minMoveBlocks, maxIdleIntervalMs);
+    }
+}
@@ -1,53 +1,109 @@
 package com.playerroutes.session;
 
 import com.playerroutes.PlayerRoutes;
-import com.playerroutes.config.ModConfig;
 import com.playerroutes.data.PlayerSession;
 import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.jfr.SamplePassEvent;
+import com.playerroutes.metrics.LatencyHistogram;
+import com.playerroutes.metrics.MetricsRegistry;
+import com.playerroutes.network.WebSocketServer;
 import com.playerroutes.render.TileManager;
 import com.playerroutes.storage.StorageProvider;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.players.PlayerList;
+import net.minecraft.world.level.Level;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Tracks player sessions. The server tick only copies raw player state into a ring buffer;
+ * {@link SampleProcessor} decides what to record and handles saves and broadcasts off-thread.
+ */
 public class SessionManager {
+    private static final int SAMPLE_RING_CAPACITY = 16384;
+    private static final long OVERFLOW_FLUSH_TIMEOUT_NANOS = 5_000_000_000L;
+
     private final StorageProvider storageProvider;
-    private final int sampleIntervalMs;
-    private final int minMoveBlocks;
+    private final SamplingSettings settings;
     private final TileManager tileManager;
-    private final Map<UUID, PlayerSession> activeSessions = new ConcurrentHashMap<>();
-    private final Map<UUID, Long> lastSampleTime = new ConcurrentHashMap<>();
-    private final Map<UUID, RoutePoint> lastRecordedPoint = new ConcurrentHashMap<>();
+    private final Map<UUID, TrackedPlayer> trackedPlayers = new ConcurrentHashMap<>();
+    // Lookup by session id: active sessions, then ending ones, then storage
+    private final Map<String, PlayerSession> activeSessionsById = new ConcurrentHashMap<>();
+    // Closed on the server thread but not yet saved as ended by the sampler
+    private final Map<String, PlayerSession> endingSessions = new ConcurrentHashMap<>();
+    // Players grouped by sampling phase; each tick samples one bucket (server thread only)
+    private final List<List<TrackedPlayer>> sampleBuckets = new ArrayList<>();
+    private final Map<ResourceKey<Level>, Integer> dimensionIds = new IdentityHashMap<>();
+    private final Map<String, Integer> dimensionIdsByName = new HashMap<>();
+    private final List<String> dimensionNames = new ArrayList<>();
+    private final SampleRingBuffer sampleRing = new SampleRingBuffer(SAMPLE_RING_CAPACITY);
+    private final SampleProcessor sampleProcessor;
+    // Free ring slots for player records (server thread only)
+    private final List<Integer> freeSlots = new ArrayList<>();
+    private int nextSlot = 0;
     private MinecraftServer server;
+    private volatile WebSocketServer webSocketServer;
+    private TraceRecorder traceRecorder;
+    private final LatencyHistogram tickTime = new LatencyHistogram();
     private ScheduledExecutorService scheduler;
-    private int tickCounter = 0;
+    private long tickCounter = 0;
     private final int ticksPerSample;
-    private int tileUpdateCounter = 0;
+    private final int maxPointsPerSession;
     private static final int TICKS_PER_TILE_UPDATE = 40; // Every 2 seconds
     private int timeUpdateCounter = 0;
     private static final int TICKS_PER_TIME_UPDATE = 100; // Every 5 seconds
 
-    public SessionManager(StorageProvider storageProvider, int sampleIntervalMs, int minMoveBlocks, TileManager tileManager) {
+    public SessionManager(StorageProvider storageProvider, SamplingSettings settings, int maxPointsPerSession,
+                          TileManager tileManager) {
         this.storageProvider = storageProvider;
-        this.sampleIntervalMs = sampleIntervalMs;
-        this.minMoveBlocks = minMoveBlocks;
+        this.settings = settings;
+        this.maxPointsPerSession = maxPointsPerSession;
         this.tileManager = tileManager;
-        this.ticksPerSample = Math.max(1, sampleIntervalMs / 50); // 50ms per tick
+        this.ticksPerSample = settings.ticksPerSample();
+        for (int i = 0; i < ticksPerSample; i++) {
+            sampleBuckets.add(new ArrayList<>());
+        }
+        this.sampleProcessor = new SampleProcessor(sampleRing, storageProvider, settings.createPolicy(),
+                () -> webSocketServer, endingSessions);
     }
 
     public void start(MinecraftServer server) {
         this.server = server;
+        startSampler();
         NeoForge.EVENT_BUS.register(this);
 
+        PlayerRoutes.LOGGER.info("SessionManager started ({} sampling every {} ticks)",
+                settings.adaptive() ? "adaptive" : "fixed", ticksPerSample);
+    }
+
+    /**
+     * Starts without a game server. Players are then driven through {@link #openSession},
+     * {@link #offerSample} and {@link #closeSession} instead of game events, e.g. by the load
+     * generator in src/bench.
+     */
+    public void startStandalone() {
+        startSampler();
+        PlayerRoutes.LOGGER.info("SessionManager started standalone ({} sampling)", settings.adaptive() ? "adaptive" : "fixed");
+    }
+
+    private void startSampler() {
         // Load any active sessions that weren't properly closed
         storageProvider.loadActiveSessions().forEach(session -> {
             // Mark old active sessions as ended (server was restarted)
@@ -55,207 +111,371 @@ public class SessionManager {
             storageProvider.saveSession(session);
         });
 
-        PlayerRoutes.LOGGER.info("SessionManager started");
+        sampleProcessor.start();
+    }
+
+    /**
+     * Where session events are broadcast; set once the WebSocket server exists.
+     */
+    public void setWebSocketServer(WebSocketServer webSocketServer) {
+        this.webSocketServer = webSocketServer;
+    }
+
+    /**
+     * Records every player read from now on; see {@link TraceRecorder}. Call before {@link #start}.
+     */
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
     }
 
     public void stop() {
-        NeoForge.EVENT_BUS.unregister(this);
+        if (server != null) {
+            NeoForge.EVENT_BUS.unregister(this);
+        }
+        if (traceRecorder != null) {
+            traceRecorder.stop();
+        }
+
+        // Opens and closes still waiting for ring space must reach the sampler before it stops
+        long deadline = System.nanoTime() + OVERFLOW_FLUSH_TIMEOUT_NANOS;
+        while (!sampleRing.flushOverflow() && System.nanoTime() < deadline) {
+            sampleProcessor.signal();
+            LockSupport.parkNanos(1_000_000L);
+        }
+        if (sampleRing.hasOverflow()) {
+            PlayerRoutes.LOGGER.warn("Sampler did not catch up, some session opens or closes were not processed");
+        }
+
+        // Let the sampler finish everything already published before taking the sessions over
+        sampleProcessor.stop();
 
         // End all active sessions
-        for (PlayerSession session : activeSessions.values()) {
-            session.endSession();
-            storageProvider.saveSession(session);
-            broadcastSessionEnd(session);
+        for (TrackedPlayer tracked : trackedPlayers.values()) {
+            tracked.session.endSession();
+            storageProvider.saveSession(tracked.session);
+            broadcastSessionEnd(tracked.session);
+        }
+        trackedPlayers.clear();
+        activeSessionsById.clear();
+        endingSessions.clear();
+        for (List<TrackedPlayer> bucket : sampleBuckets) {
+            bucket.clear();
         }
-        activeSessions.clear();
-        lastSampleTime.clear();
-        lastRecordedPoint.clear();
 
         if (scheduler != null) {
             scheduler.shutdown();
         }
 
-        PlayerRoutes.LOGGER.info("SessionManager stopped");
+        PlayerRoutes.LOGGER.info("SessionManager stopped (dropped {} samples)", sampleRing.getDroppedCount());
     }
 
     @SubscribeEvent
     public void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event) {
         if (!(event.getEntity() instanceof ServerPlayer player)) return;
 
-        UUID uuid = player.getUUID();
-        String name = player.getName().getString();
-        String sessionId = generateSessionId();
+        ResourceKey<Level> dimensionKey = player.level().dimension();
+        long now = System.currentTimeMillis();
+        TrackedPlayer tracked = open(player.getUUID(), player.getName().getString(), now,
+                player.getX(), player.getY(), player.getZ(), dimensionId(dimensionKey));
+        tracked.sampledDimensionKey = dimensionKey;
+        if (traceRecorder != null) {
+            traceRecorder.open(tracked.uuid, tracked.session.getPlayerName(), now, player.getX(), player.getY(),
+                    player.getZ(), dimensionNames.get(tracked.sampledDimensionId));
+        }
+        sampleBuckets.get(tracked.bucket).add(tracked);
+        sampleProcessor.signal();
 
+        // Queue tiles around player
+        if (tileManager != null) {
+            tileManager.queueChunksAroundPlayer(player);
+        }
+    }
+
+    private TrackedPlayer open(UUID uuid, String name, long time, double x, double y, double z, int dimensionId) {
         PlayerSession session = new PlayerSession(
-                sessionId,
+                generateSessionId(),
                 uuid,
                 name,
-                ModConfig.MAX_POINTS_PER_SESSION.get()
+                maxPointsPerSession
         );
 
         // Add initial position
-        RoutePoint initialPoint = createRoutePoint(player);
-        session.addPoint(initialPoint);
-        lastRecordedPoint.put(uuid, initialPoint);
-        lastSampleTime.put(uuid, System.currentTimeMillis());
-
-        activeSessions.put(uuid, session);
-        storageProvider.saveSession(session);
+        session.addPoint(new RoutePoint(time, x, y, z, dimensionNames.get(dimensionId)));
 
-        // Queue tiles around player
-        if (tileManager != null) {
-            tileManager.queueChunksAroundPlayer(player);
+        TrackedPlayer previous = trackedPlayers.remove(uuid);
+        if (previous != null) {
+            untrack(previous);
         }
 
-        PlayerRoutes.LOGGER.info("Started session {} for player {}", sessionId, name);
-        broadcastSessionStart(session);
+        TrackedPlayer tracked = new TrackedPlayer(uuid, session, Math.floorMod(uuid.hashCode(), ticksPerSample), allocateSlot());
+        tracked.sampledDimensionId = dimensionId;
+        trackedPlayers.put(uuid, tracked);
+        activeSessionsById.put(session.getSessionId(), session);
+
+        // Saving and announcing the session happens on the sampler thread
+        sampleRing.offerControl(SampleRingBuffer.KIND_OPEN, tracked.slot, time, dimensionId, 0, tracked);
+        return tracked;
     }
 
     @SubscribeEvent
     public void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
         if (!(event.getEntity() instanceof ServerPlayer player)) return;
 
-        UUID uuid = player.getUUID();
-        PlayerSession session = activeSessions.remove(uuid);
-
-        if (session != null) {
-            session.endSession();
-            storageProvider.saveSession(session);
-            PlayerRoutes.LOGGER.info("Ended session {} for player {}", session.getSessionId(), session.getPlayerName());
-            broadcastSessionEnd(session);
+        TrackedPlayer tracked = trackedPlayers.remove(player.getUUID());
+        if (tracked != null) {
+            untrack(tracked);
+            sampleProcessor.signal();
+            if (traceRecorder != null) {
+                traceRecorder.close(tracked.uuid);
+            }
         }
+    }
 
-        lastSampleTime.remove(uuid);
-        lastRecordedPoint.remove(uuid);
+    private void untrack(TrackedPlayer tracked) {
+        sampleBuckets.get(tracked.bucket).remove(tracked);
+        // Keep it findable until the sampler has saved it as ended
+        PlayerSession session = tracked.session;
+        endingSessions.put(session.getSessionId(), session);
+        activeSessionsById.remove(session.getSessionId());
+        // The sampler ends, saves and announces the session once it reaches this record
+        sampleRing.offerControl(SampleRingBuffer.KIND_CLOSE, tracked.slot, System.currentTimeMillis(), 0, 0, null);
+        freeSlots.add(tracked.slot);
+    }
+
+    private int allocateSlot() {
+        return freeSlots.isEmpty() ? nextSlot++ : freeSlots.remove(freeSlots.size() - 1);
     }
 
     @SubscribeEvent
     public void onServerTick(ServerTickEvent.Post event) {
+        SamplePassEvent pass = new SamplePassEvent();
+        pass.begin();
+        long start = System.nanoTime();
+        int sampled = sampleTick();
+        tickTime.recordNanos(System.nanoTime() - start);
+        pass.end();
+        if (pass.shouldCommit()) {
+            pass.tick = tickCounter;
+            pass.trackedPlayers = trackedPlayers.size();
+            pass.sampledPlayers = sampled;
+            pass.commit();
+        }
+    }
+
+    /**
+     * @return the number of players whose position was read
+     */
+    private int sampleTick() {
         tickCounter++;
-        tileUpdateCounter++;
         timeUpdateCounter++;
 
-        // Update tiles around players periodically
-        if (tileUpdateCounter >= TICKS_PER_TILE_UPDATE) {
-            tileUpdateCounter = 0;
-            if (tileManager != null) {
-                for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+        PlayerList playerList = server.getPlayerList();
+        boolean published = false;
+
+        // Lifecycle records that found the ring full on an earlier tick
+        if (sampleRing.hasOverflow()) {
+            sampleRing.flushOverflow();
+            published = true;
+        }
+
+        // Update tiles around players, each player on its own tick within the interval
+        if (tileManager != null) {
+            int tilePhase = (int) (tickCounter % TICKS_PER_TILE_UPDATE);
+            for (ServerPlayer player : playerList.getPlayers()) {
+                if (Math.floorMod(player.getUUID().hashCode(), TICKS_PER_TILE_UPDATE) == tilePhase) {
                     tileManager.queueChunksAroundPlayer(player);
                 }
             }
         }
 
-        // Broadcast world time periodically
+        // Hand world time to the sampler periodically
         if (timeUpdateCounter >= TICKS_PER_TIME_UPDATE) {
             timeUpdateCounter = 0;
-            var wsServer = PlayerRoutes.getInstance().getWebSocketServer();
-            if (wsServer != null) {
-                wsServer.broadcastWorldTime();
+            ServerLevel overworld = server.getLevel(Level.OVERWORLD);
+            if (overworld != null) {
+                long now = System.currentTimeMillis();
+                long dayTime = overworld.getDayTime() % 24000;
+                sampleRing.offerControl(SampleRingBuffer.KIND_WORLD_TIME, -1, now, 0, dayTime, null);
+                if (traceRecorder != null) {
+                    traceRecorder.worldTime(now, dayTime);
+                }
+                published = true;
             }
         }
 
-        if (tickCounter < ticksPerSample) return;
-        tickCounter = 0;
+        // Sample only this tick's bucket; every player is still visited once per ticksPerSample ticks
+        List<TrackedPlayer> bucket = sampleBuckets.get((int) (tickCounter % ticksPerSample));
+        int sampled = 0;
+        if (!bucket.isEmpty()) {
+            long now = System.currentTimeMillis();
+            for (int i = 0, n = bucket.size(); i < n; i++) {
+                TrackedPlayer tracked = bucket.get(i);
+                ServerPlayer player = playerList.getPlayer(tracked.uuid);
+                if (player == null) continue;
+
+                Level level = player.level();
+                ResourceKey<Level> dimensionKey = level.dimension();
+                if (dimensionKey != tracked.sampledDimensionKey) {
+                    tracked.sampledDimensionKey = dimensionKey;
+                    tracked.sampledDimensionId = dimensionId(dimensionKey);
+                }
 
-        long now = System.currentTimeMillis();
-        int maxIdleInterval = ModConfig.MAX_IDLE_INTERVAL_MS.get();
-
-        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-            UUID uuid = player.getUUID();
-            PlayerSession session = activeSessions.get(uuid);
-
-            if (session == null) continue;
-
-            // Update ping
-            session.updatePing(player.connection.latency());
-
-            RoutePoint currentPoint = createRoutePoint(player);
-            RoutePoint lastPoint = lastRecordedPoint.get(uuid);
-            Long lastTime = lastSampleTime.get(uuid);
-
-            boolean shouldRecord = false;
-            String reason = "";
-
-            if (lastPoint == null) {
-                shouldRecord = true;
-                reason = "first point";
-            } else {
-                double distance = currentPoint.distanceXZ(lastPoint);
-                boolean dimensionChanged = !currentPoint.dimension().equals(lastPoint.dimension());
-                long timeSinceLastRecord = lastTime != null ? now - lastTime : maxIdleInterval;
-
-                if (distance >= minMoveBlocks) {
-                    shouldRecord = true;
-                    reason = "moved " + String.format("%.1f", distance) + " blocks";
-                } else if (dimensionChanged) {
-                    shouldRecord = true;
-                    reason = "dimension changed";
-                } else if (timeSinceLastRecord >= maxIdleInterval) {
-                    shouldRecord = true;
-                    reason = "idle timeout";
+                double x = player.getX();
+                double y = player.getY();
+                double z = player.getZ();
+                int pingMs = player.connection.latency();
+                long dayTime = level.getDayTime() % 24000; // 0-24000 ticks in a day
+                sampleRing.offerSample(tracked.slot, now, x, y, z, tracked.sampledDimensionId, pingMs, dayTime);
+                sampled++;
+                if (traceRecorder != null) {
+                    traceRecorder.sample(tracked.uuid, now, x, y, z, dimensionNames.get(tracked.sampledDimensionId),
+                            pingMs, dayTime);
                 }
             }
+            published = true;
+        }
 
-            if (shouldRecord) {
-                session.addPoint(currentPoint);
-                lastRecordedPoint.put(uuid, currentPoint);
-                lastSampleTime.put(uuid, now);
-                broadcastRoutePoint(session, currentPoint, player);
-            }
+        if (published) {
+            sampleProcessor.signal();
         }
+        return sampled;
     }
 
-    private RoutePoint createRoutePoint(ServerPlayer player) {
-        return new RoutePoint(
-                System.currentTimeMillis(),
-                player.getX(),
-                player.getY(),
-                player.getZ(),
-                player.level().dimension().location().toString()
-        );
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.gauge("playerroutes_active_sessions", "Sessions of players currently online", activeSessionsById::size);
+        registry.counter("playerroutes_sessions_started_total", "Sessions started", sampleProcessor.sessionsStarted::sum);
+        registry.counter("playerroutes_sessions_ended_total", "Sessions ended", sampleProcessor.sessionsEnded::sum);
+        registry.counter("playerroutes_samples_total", "Position reads processed by the sampler",
+                sampleProcessor.samplesProcessed::sum);
+        registry.counter("playerroutes_samples_dropped_total", "Position reads and world time updates dropped because the sampler fell behind",
+                sampleRing::getDroppedCount);
+        registry.gauge("playerroutes_sample_backlog", "Records waiting for the sampler thread", sampleRing::size);
+        registry.counter("playerroutes_points_recorded_total", "Route points added to sessions",
+                sampleProcessor.pointsRecorded::sum);
+        registry.summary("playerroutes_tick_seconds", "Time PlayerRoutes spends in each server tick", tickTime);
     }
 
-    private String generateSessionId() {
-        return "sess_" + Long.toString(System.currentTimeMillis(), 36) + "_" +
-                Long.toString((long) (Math.random() * 1_000_000), 36);
+    private int dimensionId(ResourceKey<Level> key) {
+        Integer id = dimensionIds.get(key);
+        if (id == null) {
+            id = dimensionId(key.location().toString());
+            dimensionIds.put(key, id);
+        }
+        return id;
     }
 
-    private void broadcastSessionStart(PlayerSession session) {
-        var wsServer = PlayerRoutes.getInstance().getWebSocketServer();
-        if (wsServer != null) {
-            wsServer.broadcastSessionStart(session);
+    private int dimensionId(String name) {
+        Integer id = dimensionIdsByName.get(name);
+        if (id == null) {
+            id = dimensionNames.size();
+            dimensionIdsByName.put(name, id);
+            dimensionNames.add(name);
+            sampleProcessor.registerDimension(id, name);
         }
+        return id;
     }
 
-    private void broadcastSessionEnd(PlayerSession session) {
-        var wsServer = PlayerRoutes.getInstance().getWebSocketServer();
-        if (wsServer != null) {
-            wsServer.broadcastSessionEnd(session);
+    // Standalone driving, see startStandalone(). Like the game events these must all be called
+    // from one thread, which takes the place of the server thread.
+
+    /**
+     * Starts a session as if the player had logged in at the given position.
+     *
+     * @return the new session's id
+     */
+    public String openSession(UUID uuid, String name, long time, double x, double y, double z, String dimension) {
+        return open(uuid, name, time, x, y, z, dimensionId(dimension)).session.getSessionId();
+    }
+
+    /**
+     * Publishes a raw position read, as the tick does for each player due for sampling.
+     *
+     * @return false if the player has no session or the sampler has fallen a full ring behind
+     */
+    public boolean offerSample(UUID uuid, long time, double x, double y, double z, String dimension,
+                               int pingMs, long dayTime) {
+        TrackedPlayer tracked = trackedPlayers.get(uuid);
+        if (tracked == null) return false;
+        return sampleRing.offerSample(tracked.slot, time, x, y, z, dimensionId(dimension), pingMs, dayTime);
+    }
+
+    /**
+     * Ends a session as if the player had logged out.
+     */
+    public void closeSession(UUID uuid) {
+        TrackedPlayer tracked = trackedPlayers.remove(uuid);
+        if (tracked != null) {
+            untrack(tracked);
         }
     }
 
-    private void broadcastRoutePoint(PlayerSession session, RoutePoint point, ServerPlayer player) {
-        var wsServer = PlayerRoutes.getInstance().getWebSocketServer();
+    /**
+     * Hands a world time update to the sampler, as the tick does every few seconds.
+     */
+    public void offerWorldTime(long time, long dayTime) {
+        sampleRing.offerControl(SampleRingBuffer.KIND_WORLD_TIME, -1, time, 0, dayTime, null);
+    }
+
+    /**
+     * Wakes the sampler for everything offered since the last call; the tick does this once per tick.
+     */
+    public void flushSamples() {
+        sampleProcessor.signal();
+    }
+
+    private String generateSessionId() {
+        return "sess_" + Long.toString(System.currentTimeMillis(), 36) + "_" +
+                Long.toString((long) (Math.random() * 1_000_000), 36);
+    }
+
+    private void broadcastSessionEnd(PlayerSession session) {
+        var wsServer = webSocketServer;
         if (wsServer != null) {
-            long worldTime = player.level().getDayTime() % 24000; // 0-24000 ticks in a day
-            wsServer.broadcastRoutePoint(session, point, worldTime);
+            wsServer.broadcastSessionEnd(session);
         }
     }
 
     public Collection<PlayerSession> getActiveSessions() {
-        return activeSessions.values();
+        List<PlayerSession> sessions = new ArrayList<>(trackedPlayers.size());
+        for (TrackedPlayer tracked : trackedPlayers.values()) {
+            sessions.add(tracked.session);
+        }
+        return sessions;
     }
 
-    public PlayerSession getSession(String sessionId) {
-        for (PlayerSession session : activeSessions.values()) {
-            if (session.getSessionId().equals(sessionId)) {
-                return session;
+    /**
+     * Finds a session by id without loading its path from storage.
+     */
+    public SessionSummary getSessionSummary(String sessionId) {
+        PlayerSession session = activeSessionsById.get(sessionId);
+        if (session == null) {
+            session = endingSessions.get(sessionId);
+        }
+        if (session != null) {
+            synchronized (session) {
+                return SessionSummary.of(session);
             }
         }
-        return storageProvider.getSession(sessionId);
+        return storageProvider.getSessionSummary(sessionId);
+    }
+
+    /**
+     * A page of a stored session's path; see {@link StorageProvider#getSessionPoints}.
+     */
+    public List<RoutePoint> getSessionPoints(String sessionId, long from, int limit) {
+        return storageProvider.getSessionPoints(sessionId, from, limit);
     }
 
     public PlayerSession getActiveSession(UUID playerUuid) {
-        return activeSessions.get(playerUuid);
+        TrackedPlayer tracked = trackedPlayers.get(playerUuid);
+        return tracked != null ? tracked.session : null;
+    }
+
+    public int getPendingSampleCount() {
+        return sampleRing.size();
+    }
+
+    public long getDroppedSampleCount() {
+        return sampleRing.getDroppedCount();
     }
 }
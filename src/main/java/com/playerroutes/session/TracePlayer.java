@@ -0,0 +1,154 @@
+package com.playerroutes.session;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Feeds a trace written by {@link TraceRecorder} through a {@link SessionManager} started with
+ * {@link SessionManager#startStandalone()}, on the calling thread.
+ *
+ * Every recorded read is offered with its recorded time, and a read the sampler has no room for
+ * is retried instead of dropped, so a replay records the same points whatever the speed.
+ * Only session end times, which are taken when the sampler closes a session, differ between runs.
+ */
+public class TracePlayer {
+    private final SessionManager sessionManager;
+
+    public TracePlayer(SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    /**
+     * What a replay pushed through the session manager.
+     *
+     * @param retries reads that had to wait for the sampler to make room
+     */
+    public record Stats(long sessions, long samples, long ticks, long retries, long firstTime, long lastTime) {
+    }
+
+    /**
+     * Plays a trace file.
+     *
+     * @param speed multiple of recorded time to play at; 0 or less plays as fast as possible
+     */
+    public Stats play(Path trace, double speed) throws IOException {
+        try (InputStream in = Files.newInputStream(trace)) {
+            return play(in, speed);
+        }
+    }
+
+    public Stats play(InputStream input, double speed) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(input, 64 * 1024), 64 * 1024));
+        if (in.readInt() != TraceRecorder.MAGIC) {
+            throw new IOException("Not a movement trace");
+        }
+        int version = in.readShort();
+        if (version != TraceRecorder.VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        in.readLong(); // recording start
+
+        List<String> dimensions = new ArrayList<>();
+        Map<Integer, UUID> players = new HashMap<>();
+        long sessions = 0;
+        long samples = 0;
+        long ticks = 0;
+        long retries = 0;
+        long firstTime = Long.MIN_VALUE;
+        long time = Long.MIN_VALUE;
+        long startNanos = System.nanoTime();
+
+        while (true) {
+            byte tag;
+            try {
+                tag = in.readByte();
+            } catch (EOFException e) {
+                break;
+            }
+            switch (tag) {
+                case TraceRecorder.TAG_DIMENSION -> {
+                    int id = in.readInt();
+                    String name = in.readUTF();
+                    while (dimensions.size() <= id) {
+                        dimensions.add(null);
+                    }
+                    dimensions.set(id, name);
+                }
+                case TraceRecorder.TAG_OPEN -> {
+                    int player = in.readInt();
+                    UUID uuid = new UUID(in.readLong(), in.readLong());
+                    String name = in.readUTF();
+                    long openTime = in.readLong();
+                    double x = in.readDouble();
+                    double y = in.readDouble();
+                    double z = in.readDouble();
+                    String dimension = dimensions.get(in.readInt());
+                    players.put(player, uuid);
+                    sessionManager.openSession(uuid, name, openTime, x, y, z, dimension);
+                    sessions++;
+                }
+                case TraceRecorder.TAG_CLOSE -> {
+                    UUID uuid = players.remove(in.readInt());
+                    if (uuid != null) {
+                        sessionManager.closeSession(uuid);
+                    }
+                }
+                case TraceRecorder.TAG_TIME -> {
+                    // A new tick: hand the previous one to the sampler, then wait for this one's time
+                    sessionManager.flushSamples();
+                    time = in.readLong();
+                    if (firstTime == Long.MIN_VALUE) {
+                        firstTime = time;
+                    }
+                    ticks++;
+                    if (speed > 0) {
+                        long due = startNanos + (long) ((time - firstTime) * 1_000_000L / speed);
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    }
+                }
+                case TraceRecorder.TAG_SAMPLE -> {
+                    UUID uuid = players.get(in.readInt());
+                    double x = in.readDouble();
+                    double y = in.readDouble();
+                    double z = in.readDouble();
+                    String dimension = dimensions.get(in.readInt());
+                    int ping = in.readInt();
+                    long dayTime = in.readLong();
+                    if (uuid == null) continue;
+                    while (!sessionManager.offerSample(uuid, time, x, y, z, dimension, ping, dayTime)) {
+                        // The ring is full; let the sampler catch up rather than lose the read
+                        retries++;
+                        sessionManager.flushSamples();
+                        LockSupport.parkNanos(100_000);
+                    }
+                    samples++;
+                }
+                case TraceRecorder.TAG_WORLD_TIME -> sessionManager.offerWorldTime(time, in.readLong());
+                default -> throw new IOException("Corrupt trace: unknown record tag " + tag);
+            }
+        }
+        sessionManager.flushSamples();
+
+        // Players still online when recording stopped
+        for (UUID uuid : players.values()) {
+            sessionManager.closeSession(uuid);
+        }
+        sessionManager.flushSamples();
+        return new Stats(sessions, samples, ticks, retries, firstTime, time);
+    }
+}
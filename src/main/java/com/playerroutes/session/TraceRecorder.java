@@ -0,0 +1,233 @@
+package com.playerroutes.session;
+
+import com.playerroutes.PlayerRoutes;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the raw player reads the server tick feeds into the sampler, so real movement can be
+ * replayed later by {@link TracePlayer} without a game server.
+ *
+ * A trace is a gzipped stream of tagged records: dimension and player registrations, logins,
+ * logouts, world time and position samples, with the tick time written once whenever it changes.
+ * Records are encoded on the server thread into a small buffer and compressed and written on
+ * a background thread. If the writer falls far behind, recording stops rather than leaving
+ * gaps in the trace.
+ */
+public class TraceRecorder {
+    static final int MAGIC = 0x50525452; // "PRTR"
+    static final int VERSION = 1;
+
+    static final byte TAG_DIMENSION = 'D';
+    static final byte TAG_OPEN = 'O';
+    static final byte TAG_CLOSE = 'C';
+    static final byte TAG_TIME = 'T';
+    static final byte TAG_SAMPLE = 'S';
+    static final byte TAG_WORLD_TIME = 'W';
+
+    private static final int HANDOFF_BYTES = 64 * 1024;
+    private static final long MAX_PENDING_BYTES = 64L * 1024 * 1024;
+
+    private final Path file;
+    private final OutputStream out;
+    private final ExecutorService writer;
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+
+    // Server thread only
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(HANDOFF_BYTES * 2);
+    private final DataOutputStream data = new DataOutputStream(buffer);
+    private final Map<UUID, Integer> players = new HashMap<>();
+    private final Map<String, Integer> dimensions = new HashMap<>();
+    private int nextPlayer = 0;
+    private long lastTime = Long.MIN_VALUE;
+    private long records = 0;
+    private volatile boolean recording = true;
+
+    private TraceRecorder(Path file, OutputStream out) {
+        this.file = file;
+        this.out = out;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "PlayerRoutes-TraceWriter");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates the trace file, replacing any file of the same name.
+     */
+    public static TraceRecorder create(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024), 64 * 1024);
+        TraceRecorder recorder = new TraceRecorder(file, out);
+        recorder.data.writeInt(MAGIC);
+        recorder.data.writeShort(VERSION);
+        recorder.data.writeLong(System.currentTimeMillis());
+        PlayerRoutes.LOGGER.info("Recording movement trace to {}", file);
+        return recorder;
+    }
+
+    void open(UUID uuid, String name, long time, double x, double y, double z, String dimension) {
+        if (!recording) return;
+        try {
+            int dim = dimension(dimension);
+            int player = nextPlayer++;
+            players.put(uuid, player);
+            data.writeByte(TAG_OPEN);
+            data.writeInt(player);
+            data.writeLong(uuid.getMostSignificantBits());
+            data.writeLong(uuid.getLeastSignificantBits());
+            data.writeUTF(name);
+            data.writeLong(time);
+            data.writeDouble(x);
+            data.writeDouble(y);
+            data.writeDouble(z);
+            data.writeInt(dim);
+            records++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void close(UUID uuid) {
+        if (!recording) return;
+        Integer player = players.remove(uuid);
+        if (player == null) return;
+        try {
+            data.writeByte(TAG_CLOSE);
+            data.writeInt(player);
+            records++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void sample(UUID uuid, long time, double x, double y, double z, String dimension, int pingMs, long dayTime) {
+        if (!recording) return;
+        Integer player = players.get(uuid);
+        if (player == null) return;
+        try {
+            int dim = dimension(dimension);
+            time(time);
+            data.writeByte(TAG_SAMPLE);
+            data.writeInt(player);
+            data.writeDouble(x);
+            data.writeDouble(y);
+            data.writeDouble(z);
+            data.writeInt(dim);
+            data.writeInt(pingMs);
+            data.writeLong(dayTime);
+            records++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void worldTime(long time, long dayTime) {
+        if (!recording) return;
+        try {
+            time(time);
+            data.writeByte(TAG_WORLD_TIME);
+            data.writeLong(dayTime);
+            records++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes out everything recorded and closes the file. Called on the server thread.
+     */
+    public void stop() {
+        if (recording) {
+            handOff();
+        }
+        recording = false;
+        writer.execute(() -> {
+            try {
+                out.close();
+            } catch (IOException e) {
+                PlayerRoutes.LOGGER.error("Failed to close movement trace {}: {}", file, e.getMessage());
+            }
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PlayerRoutes.LOGGER.info("Movement trace {} closed: {} records, {} bytes before compression",
+                file, records, writtenBytes.get());
+    }
+
+    private int dimension(String name) throws IOException {
+        Integer id = dimensions.get(name);
+        if (id == null) {
+            id = dimensions.size();
+            dimensions.put(name, id);
+            data.writeByte(TAG_DIMENSION);
+            data.writeInt(id);
+            data.writeUTF(name);
+        }
+        return id;
+    }
+
+    /**
+     * Starts a new tick when the time changes; this is also where full buffers are handed off.
+     */
+    private void time(long time) throws IOException {
+        if (time == lastTime) return;
+        if (buffer.size() >= HANDOFF_BYTES) {
+            handOff();
+            if (!recording) return;
+        }
+        lastTime = time;
+        data.writeByte(TAG_TIME);
+        data.writeLong(time);
+    }
+
+    private void handOff() {
+        if (buffer.size() == 0) return;
+        byte[] chunk = buffer.toByteArray();
+        buffer.reset();
+        if (pendingBytes.addAndGet(chunk.length) > MAX_PENDING_BYTES) {
+            recording = false;
+            PlayerRoutes.LOGGER.warn("Movement trace writer fell behind by {} MB, recording stopped", MAX_PENDING_BYTES >> 20);
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                out.write(chunk);
+                writtenBytes.addAndGet(chunk.length);
+            } catch (IOException e) {
+                if (recording) {
+                    PlayerRoutes.LOGGER.error("Failed to write movement trace {}: {}", file, e.getMessage());
+                }
+                recording = false;
+            } finally {
+                pendingBytes.addAndGet(-chunk.length);
+            }
+        });
+    }
+
+    private void fail(IOException e) {
+        // Only reachable if the in-memory buffer fails
+        PlayerRoutes.LOGGER.error("Failed to record movement trace: {}", e.getMessage());
+        recording = false;
+    }
+}
@@ -0,0 +1,44 @@
+package com.playerroutes.session;
+
+import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.UUID;
+
+/**
+ * Per-player tracking state. The first group of fields belongs to the server thread,
+ * the second to the sampler thread; the ring buffer orders hand-offs between them.
+ */
+class TrackedPlayer {
+    final UUID uuid;
+    final PlayerSession session;
+    // Tick phase within the sampling interval, spreads players evenly across ticks
+    final int bucket;
+    // Index used to address this player in ring buffer records
+    final int slot;
+
+    // Server thread: dimension seen at the last sample, compared by identity to skip the id lookup
+    ResourceKey<Level> sampledDimensionKey;
+    int sampledDimensionId;
+
+    // Sampler thread: last recorded point for the movement checks
+    RoutePoint lastRecordedPoint;
+    long lastRecordTime;
+    int lastDimensionId;
+
+    // Sampler thread, adaptive mode: previous raw sample and velocity (blocks per ms) at the last record
+    double previousSampleX;
+    double previousSampleZ;
+    long previousSampleTime;
+    double velocityX;
+    double velocityZ;
+
+    TrackedPlayer(UUID uuid, PlayerSession session, int bucket, int slot) {
+        this.uuid = uuid;
+        this.session = session;
+        this.bucket = bucket;
+        this.slot = slot;
+    }
+}
@@ -0,0 +1,300 @@
+package com.playerroutes.storage;
+
+import com.playerroutes.PlayerRoutes;
+import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.jfr.SessionSaveEvent;
+import com.playerroutes.metrics.MetricsRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind wrapper around another {@link StorageProvider}.
+ * Saves are snapshotted on the calling thread, queued, and written by a single
+ * I/O thread. Repeated saves of a session that is still queued replace the
+ * queued snapshot instead of adding another write.
+ */
+public class AsyncStorageProvider implements StorageProvider {
+    private final StorageProvider delegate;
+    private final int maxPending;
+    private final ExecutorService ioExecutor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition written = lock.newCondition();
+
+    // Guarded by lock. Insertion order is write order, so positions are written in increasing order.
+    private final Map<String, Queued> pending = new LinkedHashMap<>();
+    private Queued inFlight;
+    private long lastQueued = 0;
+    private long lastWritten = 0;
+    private boolean drainScheduled = false;
+    private boolean closed = false;
+
+    public AsyncStorageProvider(StorageProvider delegate, int maxPending) {
+        this.delegate = delegate;
+        this.maxPending = Math.max(1, maxPending);
+        this.ioExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "PlayerRoutes-StorageIO");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void saveSession(PlayerSession session) {
+        SessionSaveEvent event = new SessionSaveEvent();
+        event.begin();
+        // Copy on the caller's thread so the writer never sees a path that is still being appended to
+        PlayerSession snapshot = session.snapshot();
+        String sessionId = snapshot.getSessionId();
+
+        lock.lock();
+        try {
+            if (closed) {
+                Queued queued = pending.get(sessionId);
+                if (queued != null) {
+                    // Still written by the I/O thread; replace its copy so an older one cannot land last
+                    pending.put(sessionId, new Queued(snapshot, queued.position()));
+                    awaitWritten(queued.position());
+                    commit(event, SessionSaveEvent.WRITE, snapshot, true);
+                    return;
+                }
+                // Let an older copy being written finish first, so this one is not overwritten
+                if (inFlight != null && inFlight.session().getSessionId().equals(sessionId)) {
+                    awaitWritten(inFlight.position());
+                }
+                PlayerRoutes.LOGGER.warn("Storage closed, writing session {} synchronously", sessionId);
+                delegate.saveSession(snapshot);
+                commit(event, SessionSaveEvent.WRITE, snapshot, false);
+                return;
+            }
+
+            if (pending.containsKey(sessionId)) {
+                // Coalesce: keep the queue position, replace the data
+                pending.put(sessionId, new Queued(snapshot, pending.get(sessionId).position()));
+                commit(event, SessionSaveEvent.QUEUE, snapshot, true);
+                return;
+            }
+
+            // Backpressure: block the producer until the writer catches up
+            while (pending.size() >= maxPending) {
+                notFull.awaitUninterruptibly();
+            }
+
+            pending.put(sessionId, new Queued(snapshot, ++lastQueued));
+            if (!drainScheduled) {
+                drainScheduled = true;
+                ioExecutor.execute(this::drain);
+            }
+        } finally {
+            lock.unlock();
+        }
+        commit(event, SessionSaveEvent.QUEUE, snapshot, false);
+    }
+
+    private static void commit(SessionSaveEvent event, String stage, PlayerSession session, boolean coalesced) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = stage;
+            event.sessionId = session.getSessionId();
+            event.points = session.getPath().size();
+            event.coalesced = coalesced;
+            event.commit();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Queued next;
+            lock.lock();
+            try {
+                Iterator<Queued> it = pending.values().iterator();
+                if (!it.hasNext()) {
+                    drainScheduled = false;
+                    inFlight = null;
+                    return;
+                }
+                next = it.next();
+                it.remove();
+                inFlight = next;
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            PlayerSession session = next.session();
+            try {
+                SessionSaveEvent event = new SessionSaveEvent();
+                event.begin();
+                delegate.saveSession(session);
+                commit(event, SessionSaveEvent.WRITE, session, false);
+            } catch (Exception e) {
+                PlayerRoutes.LOGGER.error("Failed to write session {}: {}", session.getSessionId(), e.getMessage(), e);
+            }
+
+            lock.lock();
+            try {
+                // A failed write counts too, so waiters are released; the error is logged above
+                lastWritten = next.position();
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Blocks until every save queued before this call has been written. Saves queued while
+     * waiting do not extend the wait.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            awaitWritten(lastQueued);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds lock
+    private void awaitWritten(long position) {
+        while (lastWritten < position) {
+            written.awaitUninterruptibly();
+        }
+    }
+
+    // Caller holds lock
+    private Queued queued(String sessionId) {
+        Queued queued = pending.get(sessionId);
+        if (queued == null && inFlight != null && inFlight.session().getSessionId().equals(sessionId)) {
+            queued = inFlight;
+        }
+        return queued;
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.gauge("playerroutes_storage_pending_saves", "Sessions waiting for the storage thread", this::getPendingCount);
+        delegate.registerMetrics(registry);
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PlayerSession getSession(String sessionId) {
+        lock.lock();
+        try {
+            Queued queued = queued(sessionId);
+            if (queued != null) {
+                return queued.session();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return delegate.getSession(sessionId);
+    }
+
+    @Override
+    public List<RoutePoint> getSessionPoints(String sessionId, long from, int limit) {
+        lock.lock();
+        try {
+            // Page from one consistent copy: wait for this session's write rather than mixing queued and stored points
+            Queued queued = queued(sessionId);
+            if (queued != null) {
+                awaitWritten(queued.position());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return delegate.getSessionPoints(sessionId, from, limit);
+    }
+
+    @Override
+    public SessionSummary getSessionSummary(String sessionId) {
+        lock.lock();
+        try {
+            Queued queued = queued(sessionId);
+            if (queued != null) {
+                return SessionSummary.of(queued.session());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return delegate.getSessionSummary(sessionId);
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByPlayer(UUID playerUuid, int limit, int offset) {
+        return delegate.getSessionsByPlayer(playerUuid, limit, offset);
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByTimeRange(long startTime, long endTime, int limit, int offset) {
+        return delegate.getSessionsByTimeRange(startTime, endTime, limit, offset);
+    }
+
+    @Override
+    public List<PlayerSession> loadActiveSessions() {
+        return delegate.loadActiveSessions();
+    }
+
+    @Override
+    public List<SessionSummary> getAllSessions(int limit, int offset) {
+        return delegate.getAllSessions(limit, offset);
+    }
+
+    @Override
+    public long countSessions() {
+        return delegate.countSessions();
+    }
+
+    @Override
+    public long countSessionsByPlayer(UUID playerUuid) {
+        return delegate.countSessionsByPlayer(playerUuid);
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+
+        // Flush barrier: everything queued before close() reaches the delegate
+        flush();
+
+        ioExecutor.shutdown();
+        try {
+            ioExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            ioExecutor.shutdownNow();
+        }
+
+        delegate.close();
+    }
+
+    /**
+     * @param position order in which the session was first queued; a coalesced save keeps it
+     */
+    private record Queued(PlayerSession session, long position) {}
+}
@@ -0,0 +1,158 @@
+package com.playerroutes.storage;
+
+import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.metrics.MetricsRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches summary queries of another {@link StorageProvider} for a short time, keyed by the
+ * query parameters. Callers asking for the same page at the same time share one storage read.
+ * Every save clears the cache once it has been written, so a cached page is never older than
+ * the last save.
+ */
+public class CachingStorageProvider implements StorageProvider {
+    private static final int MAX_ENTRIES = 512;
+
+    private final StorageProvider delegate;
+    private final long ttlMs;
+    private final Map<Query, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every save; entries from an older generation are stale
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CachingStorageProvider(StorageProvider delegate, long ttlMs) {
+        this.delegate = delegate;
+        this.ttlMs = ttlMs;
+    }
+
+    @Override
+    public void saveSession(PlayerSession session) {
+        delegate.saveSession(session);
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    @Override
+    public PlayerSession getSession(String sessionId) {
+        return delegate.getSession(sessionId);
+    }
+
+    @Override
+    public List<RoutePoint> getSessionPoints(String sessionId, long from, int limit) {
+        return delegate.getSessionPoints(sessionId, from, limit);
+    }
+
+    @Override
+    public SessionSummary getSessionSummary(String sessionId) {
+        return delegate.getSessionSummary(sessionId);
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByPlayer(UUID playerUuid, int limit, int offset) {
+        return cached(new Query("player", playerUuid, 0, 0, limit, offset),
+                () -> delegate.getSessionsByPlayer(playerUuid, limit, offset));
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByTimeRange(long startTime, long endTime, int limit, int offset) {
+        return cached(new Query("time", null, startTime, endTime, limit, offset),
+                () -> delegate.getSessionsByTimeRange(startTime, endTime, limit, offset));
+    }
+
+    @Override
+    public List<PlayerSession> loadActiveSessions() {
+        return delegate.loadActiveSessions();
+    }
+
+    @Override
+    public List<SessionSummary> getAllSessions(int limit, int offset) {
+        return cached(new Query("all", null, 0, 0, limit, offset),
+                () -> delegate.getAllSessions(limit, offset));
+    }
+
+    @Override
+    public long countSessions() {
+        return delegate.countSessions();
+    }
+
+    @Override
+    public long countSessionsByPlayer(UUID playerUuid) {
+        return delegate.countSessionsByPlayer(playerUuid);
+    }
+
+    @Override
+    public void close() {
+        entries.clear();
+        delegate.close();
+    }
+
+    private List<SessionSummary> cached(Query query, Supplier<List<SessionSummary>> loader) {
+        if (ttlMs <= 0) {
+            return loader.get();
+        }
+
+        long now = System.currentTimeMillis();
+        long gen = generation.get();
+        Entry entry = entries.get(query);
+        if (entry == null || !entry.isValid(now, gen)) {
+            if (entries.size() >= MAX_ENTRIES) {
+                entries.values().removeIf(e -> !e.isValid(now, gen));
+            }
+            // The first caller for a key loads it; concurrent callers wait for the same result
+            Entry created = new Entry(gen, now + ttlMs, new CompletableFuture<>());
+            entry = entries.compute(query, (k, old) -> old != null && old.isValid(now, gen) ? old : created);
+            if (entry == created) {
+                misses.incrementAndGet();
+                try {
+                    created.result().complete(List.copyOf(loader.get()));
+                } catch (RuntimeException e) {
+                    entries.remove(query, created);
+                    created.result().completeExceptionally(e);
+                    throw e;
+                }
+                return created.result().join();
+            }
+        }
+
+        hits.incrementAndGet();
+        try {
+            return entry.result().join();
+        } catch (CompletionException e) {
+            return loader.get();
+        }
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.counter("playerroutes_query_cache_hits_total", "Session list queries answered from the cache", hits::get);
+        registry.counter("playerroutes_query_cache_misses_total", "Session list queries passed to storage", misses::get);
+        registry.gauge("playerroutes_query_cache_entries", "Cached session list queries", entries::size);
+        delegate.registerMetrics(registry);
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.get(), misses.get(), entries.size());
+    }
+
+    public record CacheStats(long hits, long misses, int entries) {}
+
+    private record Query(String kind, UUID playerUuid, long startTime, long endTime, int limit, int offset) {}
+
+    private record Entry(long generation, long expiresAt, CompletableFuture<List<SessionSummary>> result) {
+        boolean isValid(long now, long currentGeneration) {
+            return generation == currentGeneration && now < expiresAt;
+        }
+    }
+}
@@ -4,9 +4,13 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.playerroutes.PlayerRoutes;
-import com.playerroutes.config.ModConfig;
 import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.metrics.MetricsRegistry;
 
 import java.io.*;
 import java.nio.file.*;
@@ -18,110 +22,250 @@ import java.util.stream.Stream;
 public class JsonStorageProvider implements StorageProvider {
     private final Path baseDir;
     private final Gson gson;
-    private final Map<String, PlayerSession> sessionCache = new ConcurrentHashMap<>();
+    // Resident for every stored session; paths are only loaded on demand
+    private final SessionIndex index = new SessionIndex();
+    // Sessions saved while still active, pinned until they are saved as ended
+    private final Map<String, PlayerSession> liveSessions = new ConcurrentHashMap<>();
+    private final SessionPathCache pathCache;
+    private final int maxPointsPerSession;
+    // Session version last written to disk, used to skip unchanged sessions
+    private final Map<String, Long> persistedVersions = new ConcurrentHashMap<>();
 
-    public JsonStorageProvider(String dirPath) {
+    public JsonStorageProvider(String dirPath, long pathCacheMaxPoints, int maxPointsPerSession) {
         this.baseDir = Paths.get(dirPath);
+        this.maxPointsPerSession = maxPointsPerSession;
         this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.pathCache = new SessionPathCache(pathCacheMaxPoints);
 
         try {
             Files.createDirectories(baseDir);
-            loadAllSessions();
+            loadAllSummaries();
         } catch (IOException e) {
             PlayerRoutes.LOGGER.error("Failed to create JSON storage directory: {}", e.getMessage());
         }
     }
 
-    private void loadAllSessions() {
+    private void loadAllSummaries() {
+        List<SessionSummary> loaded = new ArrayList<>();
         try (Stream<Path> files = Files.list(baseDir)) {
             files.filter(p -> p.toString().endsWith(".json"))
-                    .forEach(this::loadSessionFile);
+                    .map(this::loadSummaryFile)
+                    .filter(Objects::nonNull)
+                    .forEach(loaded::add);
         } catch (IOException e) {
             PlayerRoutes.LOGGER.error("Failed to load sessions: {}", e.getMessage());
         }
+        index.load(loaded);
+        PlayerRoutes.LOGGER.info("Indexed {} stored sessions", index.size());
     }
 
-    private void loadSessionFile(Path filePath) {
+    private SessionSummary loadSummaryFile(Path filePath) {
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(filePath))) {
+            return SessionSummary.fromJsonStream(reader);
+        } catch (Exception e) {
+            PlayerRoutes.LOGGER.warn("Failed to load session file {}: {}", filePath, e.getMessage());
+            return null;
+        }
+    }
+
+    private PlayerSession loadSessionFile(String sessionId) {
+        Path filePath = sessionPath(sessionId);
         try (Reader reader = Files.newBufferedReader(filePath)) {
             JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
-            PlayerSession session = PlayerSession.fromJson(json, ModConfig.MAX_POINTS_PER_SESSION.get());
-            sessionCache.put(session.getSessionId(), session);
+            PlayerSession session = PlayerSession.fromJson(json, maxPointsPerSession);
+            persistedVersions.put(sessionId, session.getVersion());
+            return session;
         } catch (Exception e) {
             PlayerRoutes.LOGGER.warn("Failed to load session file {}: {}", filePath, e.getMessage());
+            return null;
         }
     }
 
+    private Path sessionPath(String sessionId) {
+        return baseDir.resolve(sessionId + ".json");
+    }
+
     @Override
     public void saveSession(PlayerSession session) {
-        sessionCache.put(session.getSessionId(), session);
+        String sessionId = session.getSessionId();
+        index.put(SessionSummary.of(session));
+
+        if (isDirty(session)) {
+            writeSessionFile(session);
+        }
+
+        if (session.isActive()) {
+            liveSessions.put(sessionId, session);
+        } else {
+            liveSessions.remove(sessionId);
+            evict(pathCache.put(session));
+        }
+    }
 
-        Path filePath = baseDir.resolve(session.getSessionId() + ".json");
+    private boolean isDirty(PlayerSession session) {
+        Long persisted = persistedVersions.get(session.getSessionId());
+        return persisted == null || persisted != session.getVersion();
+    }
+
+    private void writeSessionFile(PlayerSession session) {
+        // Read the version before serializing so a concurrent change leaves the session dirty
+        long version = session.getVersion();
+
+        Path filePath = sessionPath(session.getSessionId());
         try (Writer writer = Files.newBufferedWriter(filePath)) {
             gson.toJson(session.toJson(), writer);
+            persistedVersions.put(session.getSessionId(), version);
         } catch (IOException e) {
             PlayerRoutes.LOGGER.error("Failed to save session {}: {}", session.getSessionId(), e.getMessage());
         }
     }
 
+    private void evict(List<PlayerSession> evicted) {
+        for (PlayerSession session : evicted) {
+            // Write back anything that changed while cached, then forget its version
+            if (isDirty(session)) {
+                writeSessionFile(session);
+            }
+            persistedVersions.remove(session.getSessionId());
+        }
+    }
+
     @Override
     public PlayerSession getSession(String sessionId) {
-        return sessionCache.get(sessionId);
+        PlayerSession live = liveSessions.get(sessionId);
+        if (live != null) {
+            return live;
+        }
+
+        PlayerSession cached = pathCache.get(sessionId);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!index.contains(sessionId)) {
+            return null;
+        }
+
+        PlayerSession loaded = loadSessionFile(sessionId);
+        if (loaded != null) {
+            evict(pathCache.put(loaded));
+        }
+        return loaded;
     }
 
+    /**
+     * Served from memory when the session is live or cached. A first page ({@code from == 0})
+     * loads the session into the path cache, as a replay goes on to page through the rest. A
+     * later page of a session no longer cached streams the file up to the requested page.
+     */
     @Override
-    public List<PlayerSession> getSessionsByPlayer(UUID playerUuid, int limit, int offset) {
-        return sessionCache.values().stream()
-                .filter(s -> s.getPlayerUuid().equals(playerUuid))
-                .sorted((a, b) -> Long.compare(b.getStartedAt(), a.getStartedAt()))
-                .skip(offset)
-                .limit(limit)
-                .collect(Collectors.toList());
+    public List<RoutePoint> getSessionPoints(String sessionId, long from, int limit) {
+        PlayerSession resident = liveSessions.get(sessionId);
+        if (resident == null) {
+            resident = from == 0 ? getSession(sessionId) : pathCache.get(sessionId);
+        }
+        if (resident != null) {
+            synchronized (resident) {
+                List<RoutePoint> path = resident.getPath();
+                int start = (int) Math.min(from, path.size());
+                return new ArrayList<>(path.subList(start, Math.min(path.size(), start + limit)));
+            }
+        }
+        if (!index.contains(sessionId)) {
+            return List.of();
+        }
+        return readPoints(sessionId, from, limit);
+    }
+
+    private List<RoutePoint> readPoints(String sessionId, long from, int limit) {
+        Path filePath = sessionPath(sessionId);
+        List<RoutePoint> points = new ArrayList<>(Math.min(limit, 1024));
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(filePath))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("path") || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                for (long i = 0; i < from && reader.hasNext(); i++) {
+                    reader.skipValue();
+                }
+                while (points.size() < limit && reader.hasNext()) {
+                    points.add(RoutePoint.fromJson(JsonParser.parseReader(reader).getAsJsonObject()));
+                }
+                break;
+            }
+        } catch (Exception e) {
+            PlayerRoutes.LOGGER.warn("Failed to read points of session {}: {}", sessionId, e.getMessage());
+        }
+        return points;
     }
 
     @Override
-    public List<PlayerSession> getSessionsByTimeRange(long startTime, long endTime, int limit, int offset) {
-        return sessionCache.values().stream()
-                .filter(s -> s.getStartedAt() >= startTime && s.getStartedAt() <= endTime)
-                .sorted((a, b) -> Long.compare(b.getStartedAt(), a.getStartedAt()))
-                .skip(offset)
-                .limit(limit)
-                .collect(Collectors.toList());
+    public SessionSummary getSessionSummary(String sessionId) {
+        PlayerSession live = liveSessions.get(sessionId);
+        if (live != null) {
+            synchronized (live) {
+                return SessionSummary.of(live);
+            }
+        }
+        return index.get(sessionId);
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByPlayer(UUID playerUuid, int limit, int offset) {
+        return index.byPlayer(playerUuid, limit, offset);
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByTimeRange(long startTime, long endTime, int limit, int offset) {
+        return index.byTimeRange(startTime, endTime, limit, offset);
     }
 
     @Override
     public List<PlayerSession> loadActiveSessions() {
-        return sessionCache.values().stream()
-                .filter(PlayerSession::isActive)
+        return index.active().stream()
+                .map(s -> getSession(s.sessionId()))
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<PlayerSession> getAllSessions(int limit, int offset) {
-        return sessionCache.values().stream()
-                .sorted((a, b) -> Long.compare(b.getStartedAt(), a.getStartedAt()))
-                .skip(offset)
-                .limit(limit)
-                .collect(Collectors.toList());
+    public List<SessionSummary> getAllSessions(int limit, int offset) {
+        return index.all(limit, offset);
     }
 
     @Override
     public long countSessions() {
-        return sessionCache.size();
+        return index.size();
     }
 
     @Override
     public long countSessionsByPlayer(UUID playerUuid) {
-        return sessionCache.values().stream()
-                .filter(s -> s.getPlayerUuid().equals(playerUuid))
-                .count();
+        return index.countByPlayer(playerUuid);
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry registry) {
+        pathCache.registerMetrics(registry);
     }
 
     @Override
     public void close() {
-        // Save all sessions before closing
-        for (PlayerSession session : sessionCache.values()) {
-            saveSession(session);
-        }
-        sessionCache.clear();
+        // Only write sessions changed since their last save; files are independent so write them in parallel
+        List<PlayerSession> resident = new ArrayList<>(liveSessions.values());
+        resident.addAll(pathCache.values());
+        List<PlayerSession> dirty = resident.stream()
+                .filter(this::isDirty)
+                .collect(Collectors.toList());
+        dirty.parallelStream().forEach(this::writeSessionFile);
+        PlayerRoutes.LOGGER.info("Flushed {} of {} resident sessions, path cache: {}",
+                dirty.size(), resident.size(), pathCache.getStats());
+
+        liveSessions.clear();
+        pathCache.clear();
+        persistedVersions.clear();
+        index.clear();
     }
 }
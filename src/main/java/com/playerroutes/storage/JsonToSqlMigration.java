@@ -0,0 +1,81 @@
+package com.playerroutes.storage;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.playerroutes.PlayerRoutes;
+import com.playerroutes.data.PlayerSession;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Copies session files from a JSON storage directory into a {@link SqlStorageProvider}.
+ * Sessions already present in the database are skipped, so the migration can be re-run.
+ */
+public class JsonToSqlMigration {
+
+    public static int migrate(Path jsonDir, SqlStorageProvider target) {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(jsonDir)) {
+            files = stream.filter(p -> p.toString().endsWith(".json")).collect(Collectors.toList());
+        } catch (IOException e) {
+            PlayerRoutes.LOGGER.error("Failed to list JSON sessions in {}: {}", jsonDir, e.getMessage());
+            return 0;
+        }
+
+        int migrated = 0;
+        for (Path file : files) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                JsonObject json = JsonParser.parseReader(reader).getAsJsonObject();
+                // Keep every point on import, the database is not bounded by maxPointsPerSession
+                PlayerSession session = PlayerSession.fromJson(json, Integer.MAX_VALUE);
+                if (target.containsSession(session.getSessionId())) {
+                    continue;
+                }
+                target.writeSession(session);
+                migrated++;
+            } catch (Exception e) {
+                PlayerRoutes.LOGGER.warn("Skipping session file {}: {}", file, e.getMessage());
+            }
+        }
+
+        PlayerRoutes.LOGGER.info("Migrated {} of {} JSON sessions from {}", migrated, files.size(), jsonDir);
+        return migrated;
+    }
+
+    public static boolean hasJsonSessions(Path jsonDir) {
+        if (!Files.isDirectory(jsonDir)) {
+            return false;
+        }
+        try (Stream<Path> stream = Files.list(jsonDir)) {
+            return stream.anyMatch(p -> p.toString().endsWith(".json"));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Offline migration: java ... com.playerroutes.storage.JsonToSqlMigration &lt;jsonDir&gt; &lt;dbFile&gt; [maxPoints]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: JsonToSqlMigration <jsonDir> <dbFile> [maxPointsPerSession]");
+            System.exit(1);
+        }
+        int maxPoints = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+
+        SqlStorageProvider target = new SqlStorageProvider(Paths.get(args[1]), maxPoints, maxPoints);
+        try {
+            int migrated = migrate(Paths.get(args[0]), target);
+            System.out.println("Migrated " + migrated + " sessions, database now holds " + target.countSessions());
+        } finally {
+            target.close();
+        }
+    }
+}
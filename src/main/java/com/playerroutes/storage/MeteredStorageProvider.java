@@ -0,0 +1,137 @@
+package com.playerroutes.storage;
+
+import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.metrics.LatencyHistogram;
+import com.playerroutes.metrics.MetricsRegistry;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Times every call to another {@link StorageProvider}. Placed directly around the real provider,
+ * it measures actual disk and database work rather than cache hits or queued saves.
+ */
+public class MeteredStorageProvider implements StorageProvider {
+    private final StorageProvider delegate;
+    private final LatencyHistogram writes = new LatencyHistogram();
+    private final LatencyHistogram sessionReads = new LatencyHistogram();
+    private final LatencyHistogram listReads = new LatencyHistogram();
+    private final LatencyHistogram counts = new LatencyHistogram();
+
+    public MeteredStorageProvider(StorageProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry registry) {
+        String name = "playerroutes_storage_operation_seconds";
+        String help = "Time spent in the storage provider per call";
+        registry.summary(name, help, "operation=\"save\"", writes);
+        registry.summary(name, help, "operation=\"get_session\"", sessionReads);
+        registry.summary(name, help, "operation=\"list\"", listReads);
+        registry.summary(name, help, "operation=\"count\"", counts);
+        delegate.registerMetrics(registry);
+    }
+
+    @Override
+    public void saveSession(PlayerSession session) {
+        long start = System.nanoTime();
+        try {
+            delegate.saveSession(session);
+        } finally {
+            writes.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public PlayerSession getSession(String sessionId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSession(sessionId);
+        } finally {
+            sessionReads.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<RoutePoint> getSessionPoints(String sessionId, long from, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSessionPoints(sessionId, from, limit);
+        } finally {
+            sessionReads.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public SessionSummary getSessionSummary(String sessionId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSessionSummary(sessionId);
+        } finally {
+            sessionReads.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByPlayer(UUID playerUuid, int limit, int offset) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSessionsByPlayer(playerUuid, limit, offset);
+        } finally {
+            listReads.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByTimeRange(long startTime, long endTime, int limit, int offset) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getSessionsByTimeRange(startTime, endTime, limit, offset);
+        } finally {
+            listReads.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<PlayerSession> loadActiveSessions() {
+        return delegate.loadActiveSessions();
+    }
+
+    @Override
+    public List<SessionSummary> getAllSessions(int limit, int offset) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getAllSessions(limit, offset);
+        } finally {
+            listReads.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long countSessions() {
+        long start = System.nanoTime();
+        try {
+            return delegate.countSessions();
+        } finally {
+            counts.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public long countSessionsByPlayer(UUID playerUuid) {
+        long start = System.nanoTime();
+        try {
+            return delegate.countSessionsByPlayer(playerUuid);
+        } finally {
+            counts.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
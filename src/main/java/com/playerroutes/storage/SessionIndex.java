@@ -0,0 +1,281 @@
+package com.playerroutes.storage;
+
+import com.playerroutes.data.SessionSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory secondary indexes over session summaries.
+ * Keeps a global list and one list per player, each sorted by start time, so paged
+ * queries are a binary search plus a slice and counts are list sizes.
+ * Sessions almost always arrive in start order, which makes inserts appends.
+ */
+public class SessionIndex {
+    private static final Comparator<SessionSummary> BY_START = Comparator
+            .comparingLong(SessionSummary::startedAt)
+            .thenComparing(SessionSummary::sessionId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, SessionSummary> byId = new HashMap<>();
+    private final SortedList global = new SortedList();
+    private final Map<UUID, SortedList> byPlayer = new HashMap<>();
+
+    /**
+     * Replaces the index contents with the given summaries, sorting once instead of inserting one by one.
+     */
+    public void load(Collection<SessionSummary> summaries) {
+        lock.writeLock().lock();
+        try {
+            byId.clear();
+            global.items.clear();
+            byPlayer.clear();
+
+            for (SessionSummary summary : summaries) {
+                byId.put(summary.sessionId(), summary);
+            }
+            for (SessionSummary summary : byId.values()) {
+                global.items.add(summary);
+                byPlayer.computeIfAbsent(summary.playerUuid(), k -> new SortedList()).items.add(summary);
+            }
+
+            global.items.sort(BY_START);
+            for (SortedList list : byPlayer.values()) {
+                list.items.sort(BY_START);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(SessionSummary summary) {
+        lock.writeLock().lock();
+        try {
+            SessionSummary previous = byId.put(summary.sessionId(), summary);
+            if (previous != null && BY_START.compare(previous, summary) == 0
+                    && previous.playerUuid().equals(summary.playerUuid())) {
+                // Same sort key, update in place
+                global.replace(previous, summary);
+                byPlayer.get(summary.playerUuid()).replace(previous, summary);
+                return;
+            }
+            if (previous != null) {
+                unlink(previous);
+            }
+            global.insert(summary);
+            byPlayer.computeIfAbsent(summary.playerUuid(), k -> new SortedList()).insert(summary);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SessionSummary remove(String sessionId) {
+        lock.writeLock().lock();
+        try {
+            SessionSummary previous = byId.remove(sessionId);
+            if (previous != null) {
+                unlink(previous);
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlink(SessionSummary summary) {
+        global.remove(summary);
+        SortedList playerList = byPlayer.get(summary.playerUuid());
+        if (playerList != null) {
+            playerList.remove(summary);
+            if (playerList.items.isEmpty()) {
+                byPlayer.remove(summary.playerUuid());
+            }
+        }
+    }
+
+    public SessionSummary get(String sessionId) {
+        lock.readLock().lock();
+        try {
+            return byId.get(sessionId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String sessionId) {
+        return get(sessionId) != null;
+    }
+
+    /**
+     * Newest-first page of all sessions.
+     */
+    public List<SessionSummary> all(int limit, int offset) {
+        lock.readLock().lock();
+        try {
+            return global.newestFirst(0, global.items.size(), limit, offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Newest-first page of one player's sessions.
+     */
+    public List<SessionSummary> byPlayer(UUID playerUuid, int limit, int offset) {
+        lock.readLock().lock();
+        try {
+            SortedList list = byPlayer.get(playerUuid);
+            return list == null ? List.of() : list.newestFirst(0, list.items.size(), limit, offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Newest-first page of sessions that started within [startTime, endTime].
+     */
+    public List<SessionSummary> byTimeRange(long startTime, long endTime, int limit, int offset) {
+        lock.readLock().lock();
+        try {
+            int from = global.firstIndexAtOrAfter(startTime);
+            int to = endTime == Long.MAX_VALUE
+                    ? global.items.size()
+                    : global.firstIndexAtOrAfter(endTime + 1);
+            return global.newestFirst(from, to, limit, offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SessionSummary> active() {
+        lock.readLock().lock();
+        try {
+            List<SessionSummary> result = new ArrayList<>();
+            for (SessionSummary summary : byId.values()) {
+                if (summary.active()) {
+                    result.add(summary);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countByPlayer(UUID playerUuid) {
+        lock.readLock().lock();
+        try {
+            SortedList list = byPlayer.get(playerUuid);
+            return list == null ? 0 : list.items.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            byId.clear();
+            global.items.clear();
+            byPlayer.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Array-backed list kept in ascending {@link #BY_START} order.
+     */
+    private static final class SortedList {
+        final ArrayList<SessionSummary> items = new ArrayList<>();
+
+        void insert(SessionSummary summary) {
+            int size = items.size();
+            if (size == 0 || BY_START.compare(items.get(size - 1), summary) < 0) {
+                items.add(summary);
+                return;
+            }
+            int pos = indexOf(summary);
+            items.add(pos < 0 ? -pos - 1 : pos, summary);
+        }
+
+        void replace(SessionSummary previous, SessionSummary summary) {
+            int pos = indexOf(previous);
+            if (pos >= 0) {
+                items.set(pos, summary);
+            } else {
+                insert(summary);
+            }
+        }
+
+        void remove(SessionSummary summary) {
+            int pos = indexOf(summary);
+            if (pos >= 0) {
+                items.remove(pos);
+            }
+        }
+
+        int indexOf(SessionSummary summary) {
+            int lo = 0;
+            int hi = items.size() - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = BY_START.compare(items.get(mid), summary);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                } else if (cmp > 0) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+
+        int firstIndexAtOrAfter(long startedAt) {
+            int lo = 0;
+            int hi = items.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (items.get(mid).startedAt() < startedAt) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Slice of [from, to) walking from the newest end, skipping offset and taking at most limit.
+         */
+        List<SessionSummary> newestFirst(int from, int to, int limit, int offset) {
+            int start = to - 1 - Math.max(0, offset);
+            int count = Math.min(Math.max(0, limit), start - from + 1);
+            if (count <= 0) {
+                return List.of();
+            }
+            List<SessionSummary> page = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                page.add(items.get(start - i));
+            }
+            return page;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.playerroutes.storage;
+
+import com.playerroutes.data.PlayerSession;
+import com.playerroutes.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of fully loaded sessions, bounded by the total number of path points
+ * held rather than by entry count.
+ */
+public class SessionPathCache {
+    private final long maxPoints;
+    private final LinkedHashMap<String, PlayerSession> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+    private long totalPoints = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SessionPathCache(long maxPoints) {
+        this.maxPoints = maxPoints;
+    }
+
+    public synchronized PlayerSession get(String sessionId) {
+        PlayerSession session = entries.get(sessionId);
+        if (session != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return session;
+    }
+
+    /**
+     * Inserts or replaces a session and returns whatever had to be evicted to stay within budget.
+     * A single session larger than the whole budget is still cached until something else displaces it.
+     */
+    public synchronized List<PlayerSession> put(PlayerSession session) {
+        String sessionId = session.getSessionId();
+        remove(sessionId);
+
+        int weight = weightOf(session);
+        entries.put(sessionId, session);
+        weights.put(sessionId, weight);
+        totalPoints += weight;
+
+        List<PlayerSession> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, PlayerSession>> it = entries.entrySet().iterator();
+        while (totalPoints > maxPoints && it.hasNext()) {
+            Map.Entry<String, PlayerSession> eldest = it.next();
+            if (eldest.getKey().equals(sessionId)) {
+                break;
+            }
+            it.remove();
+            totalPoints -= weights.remove(eldest.getKey());
+            evicted.add(eldest.getValue());
+            evictions.incrementAndGet();
+        }
+        return evicted;
+    }
+
+    public synchronized PlayerSession remove(String sessionId) {
+        PlayerSession removed = entries.remove(sessionId);
+        if (removed != null) {
+            totalPoints -= weights.remove(sessionId);
+        }
+        return removed;
+    }
+
+    public synchronized List<PlayerSession> values() {
+        return new ArrayList<>(entries.values());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weights.clear();
+        totalPoints = 0;
+    }
+
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.counter("playerroutes_path_cache_hits_total", "Stored sessions served from the path cache", hits::get);
+        registry.counter("playerroutes_path_cache_misses_total", "Stored sessions loaded from disk", misses::get);
+        registry.counter("playerroutes_path_cache_evictions_total", "Sessions evicted to stay within the point budget",
+                evictions::get);
+        registry.gauge("playerroutes_path_cache_entries", "Sessions held in the path cache", () -> getStats().entries());
+        registry.gauge("playerroutes_path_cache_points", "Route points held in the path cache", () -> getStats().points());
+        registry.gauge("playerroutes_path_cache_max_points", "Route point budget of the path cache", () -> maxPoints);
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), entries.size(), totalPoints, maxPoints);
+    }
+
+    private static int weightOf(PlayerSession session) {
+        // Count the session itself so empty paths still cost something
+        return session.getPath().size() + 1;
+    }
+
+    public record CacheStats(long hits, long misses, long evictions, int entries, long points, long maxPoints) {
+    }
+}
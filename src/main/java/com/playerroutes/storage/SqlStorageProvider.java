@@ -0,0 +1,497 @@
+package com.playerroutes.storage;
+
+import com.playerroutes.PlayerRoutes;
+import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionStats;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.metrics.MetricsRegistry;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Storage provider backed by an embedded H2 database file (no server process).
+ * Sessions and points live in separate tables; each save only inserts the points
+ * appended since the previous save, in one batched transaction.
+ */
+public class SqlStorageProvider implements StorageProvider {
+    private static final String SESSION_COLUMNS =
+            "session_id, player_uuid, player_name, started_at, ended_at, active, last_seen_at, " +
+            "samples, distance_xz, last_t, last_x, last_y, last_z, last_dim_id";
+    // Rows in the points table; samples also counts points trimmed from the path before they were stored
+    private static final String SUMMARY_COLUMNS = SESSION_COLUMNS + ", point_count";
+
+    private final Connection connection;
+    private final int maxPoints;
+    // Sessions saved while still active, pinned until they are saved as ended
+    private final Map<String, PlayerSession> liveSessions = new ConcurrentHashMap<>();
+    private final SessionPathCache pathCache;
+    // Guarded by this
+    private final Map<String, Integer> dimensionIds = new HashMap<>();
+    private final Map<Integer, String> dimensionNames = new HashMap<>();
+    private final Map<String, Long> storedSeq = new HashMap<>();
+
+    public SqlStorageProvider(Path dbFile, int maxPoints, long pathCacheMaxPoints) throws SQLException {
+        this.maxPoints = maxPoints;
+        this.pathCache = new SessionPathCache(pathCacheMaxPoints);
+
+        try {
+            Class.forName("org.h2.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("H2 driver not available", e);
+        }
+        this.connection = DriverManager.getConnection("jdbc:h2:file:" + dbFile.toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE");
+        this.connection.setAutoCommit(false);
+
+        createSchema();
+        loadDimensions();
+    }
+
+    private void createSchema() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS dimensions (" +
+                    "dim_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "name VARCHAR(255) NOT NULL UNIQUE)");
+            st.execute("CREATE TABLE IF NOT EXISTS sessions (" +
+                    "session_id VARCHAR(64) PRIMARY KEY, " +
+                    "player_uuid UUID NOT NULL, " +
+                    "player_name VARCHAR(64) NOT NULL, " +
+                    "started_at BIGINT NOT NULL, " +
+                    "ended_at BIGINT, " +
+                    "active BOOLEAN NOT NULL, " +
+                    "last_seen_at BIGINT NOT NULL, " +
+                    "samples INT NOT NULL, " +
+                    "distance_xz DOUBLE PRECISION NOT NULL, " +
+                    "last_t BIGINT, last_x DOUBLE PRECISION, last_y DOUBLE PRECISION, last_z DOUBLE PRECISION, " +
+                    "last_dim_id INT, " +
+                    "last_seq BIGINT NOT NULL DEFAULT -1, " +
+                    "point_count INT)");
+            st.execute("CREATE TABLE IF NOT EXISTS points (" +
+                    "session_id VARCHAR(64) NOT NULL, " +
+                    "seq BIGINT NOT NULL, " +
+                    "t BIGINT NOT NULL, " +
+                    "x DOUBLE PRECISION NOT NULL, y DOUBLE PRECISION NOT NULL, z DOUBLE PRECISION NOT NULL, " +
+                    "dim_id INT NOT NULL, " +
+                    "PRIMARY KEY (session_id, seq))");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_sessions_player_start ON sessions(player_uuid, started_at)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_sessions_start ON sessions(started_at)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_sessions_active ON sessions(active)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_points_area ON points(dim_id, x, z)");
+            // Databases created before point_count: count the stored points once
+            st.execute("ALTER TABLE sessions ADD COLUMN IF NOT EXISTS point_count INT");
+            st.execute("UPDATE sessions SET point_count = " +
+                    "(SELECT COUNT(*) FROM points WHERE points.session_id = sessions.session_id) " +
+                    "WHERE point_count IS NULL");
+        }
+        connection.commit();
+    }
+
+    private void loadDimensions() throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT dim_id, name FROM dimensions")) {
+            while (rs.next()) {
+                dimensionIds.put(rs.getString(2), rs.getInt(1));
+                dimensionNames.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+    }
+
+    /**
+     * Inserts unknown dimensions into the current transaction. Their ids go into {@code added}
+     * and are only published to the cache once the transaction commits.
+     */
+    private int dimensionId(String name, Map<String, Integer> added) throws SQLException {
+        Integer id = dimensionIds.get(name);
+        if (id == null) {
+            id = added.get(name);
+        }
+        if (id != null) {
+            return id;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO dimensions (name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, name);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                id = keys.getInt(1);
+            }
+        }
+        added.put(name, id);
+        return id;
+    }
+
+    @Override
+    public void saveSession(PlayerSession session) {
+        String sessionId = session.getSessionId();
+        writeSession(session);
+
+        if (session.isActive()) {
+            liveSessions.put(sessionId, session);
+        } else {
+            liveSessions.remove(sessionId);
+            pathCache.put(session);
+        }
+    }
+
+    /**
+     * Upserts the session row and inserts any points not yet stored, in one transaction.
+     * Point sequence numbers count every point ever added to the session, so they stay
+     * stable when the in-memory path drops its oldest entries.
+     */
+    synchronized void writeSession(PlayerSession session) {
+        String sessionId = session.getSessionId();
+        List<RoutePoint> path = session.getPath();
+        long firstSeq = (long) session.getStats().getSamples() - path.size();
+        Map<String, Integer> addedDimensions = new HashMap<>();
+
+        try {
+            long lastStored = lastStoredSeq(sessionId);
+            int from = (int) Math.max(0, lastStored - firstSeq + 1);
+
+            if (from < path.size()) {
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO points (session_id, seq, t, x, y, z, dim_id) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                    for (int i = from; i < path.size(); i++) {
+                        RoutePoint point = path.get(i);
+                        ps.setString(1, sessionId);
+                        ps.setLong(2, firstSeq + i);
+                        ps.setLong(3, point.timestamp());
+                        ps.setDouble(4, point.x());
+                        ps.setDouble(5, point.y());
+                        ps.setDouble(6, point.z());
+                        ps.setInt(7, dimensionId(point.dimension(), addedDimensions));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                lastStored = firstSeq + path.size() - 1;
+            }
+            int inserted = Math.max(0, path.size() - from);
+
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "MERGE INTO sessions (" + SESSION_COLUMNS + ", last_seq) KEY (session_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                ps.setString(1, sessionId);
+                ps.setObject(2, session.getPlayerUuid());
+                ps.setString(3, session.getPlayerName());
+                ps.setLong(4, session.getStartedAt());
+                ps.setObject(5, session.getEndedAt());
+                ps.setBoolean(6, session.isActive());
+                ps.setLong(7, session.getLastSeenAt());
+                ps.setInt(8, session.getStats().getSamples());
+                ps.setDouble(9, session.getStats().getDistanceXZ());
+                RoutePoint last = session.getLastPoint();
+                if (last != null) {
+                    ps.setLong(10, last.timestamp());
+                    ps.setDouble(11, last.x());
+                    ps.setDouble(12, last.y());
+                    ps.setDouble(13, last.z());
+                    ps.setInt(14, dimensionId(last.dimension(), addedDimensions));
+                } else {
+                    for (int i = 10; i <= 14; i++) {
+                        ps.setObject(i, null);
+                    }
+                }
+                ps.setLong(15, lastStored);
+                ps.executeUpdate();
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "UPDATE sessions SET point_count = COALESCE(point_count, 0) + ? WHERE session_id = ?")) {
+                ps.setInt(1, inserted);
+                ps.setString(2, sessionId);
+                ps.executeUpdate();
+            }
+
+            connection.commit();
+            storedSeq.put(sessionId, lastStored);
+            addedDimensions.forEach((name, id) -> {
+                dimensionIds.put(name, id);
+                dimensionNames.put(id, name);
+            });
+        } catch (SQLException e) {
+            rollback();
+            storedSeq.remove(sessionId);
+            PlayerRoutes.LOGGER.error("Failed to save session {}: {}", sessionId, e.getMessage(), e);
+        }
+    }
+
+    private long lastStoredSeq(String sessionId) throws SQLException {
+        Long cached = storedSeq.get(sessionId);
+        if (cached != null) {
+            return cached;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT last_seq FROM sessions WHERE session_id = ?")) {
+            ps.setString(1, sessionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1L;
+            }
+        }
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            PlayerRoutes.LOGGER.error("Failed to roll back: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public PlayerSession getSession(String sessionId) {
+        PlayerSession live = liveSessions.get(sessionId);
+        if (live != null) {
+            return live;
+        }
+
+        PlayerSession cached = pathCache.get(sessionId);
+        if (cached != null) {
+            return cached;
+        }
+
+        PlayerSession loaded = loadSession(sessionId);
+        if (loaded != null) {
+            pathCache.put(loaded);
+        }
+        return loaded;
+    }
+
+    private synchronized PlayerSession loadSession(String sessionId) {
+        try {
+            SessionSummary summary;
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT " + SUMMARY_COLUMNS + " FROM sessions WHERE session_id = ?")) {
+                ps.setString(1, sessionId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    summary = readSummary(rs);
+                }
+            }
+
+            // Newest maxPoints points, returned oldest first
+            List<RoutePoint> path = new ArrayList<>();
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT t, x, y, z, dim_id FROM points WHERE session_id = ? ORDER BY seq DESC LIMIT ?")) {
+                ps.setString(1, sessionId);
+                ps.setInt(2, maxPoints);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        path.add(new RoutePoint(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4),
+                                dimensionNames.get(rs.getInt(5))));
+                    }
+                }
+            }
+            connection.commit();
+            Collections.reverse(path);
+
+            return new PlayerSession(summary.sessionId(), summary.playerUuid(), summary.playerName(),
+                    summary.startedAt(), summary.endedAt(), summary.active(), summary.lastSeenAt(),
+                    summary.stats(), path, maxPoints);
+        } catch (SQLException e) {
+            rollback();
+            PlayerRoutes.LOGGER.error("Failed to load session {}: {}", sessionId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads from the points table. {@code from} indexes the stored points in order, which are the
+     * points present in the path at each save; points trimmed from the path between two saves
+     * were never written, so sequence numbers can have gaps and are not used as the index.
+     */
+    @Override
+    public synchronized List<RoutePoint> getSessionPoints(String sessionId, long from, int limit) {
+        List<RoutePoint> points = new ArrayList<>(Math.min(limit, 1024));
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT t, x, y, z, dim_id FROM points WHERE session_id = ? ORDER BY seq LIMIT ? OFFSET ?")) {
+            ps.setString(1, sessionId);
+            ps.setInt(2, limit);
+            ps.setLong(3, from);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    points.add(new RoutePoint(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4),
+                            dimensionNames.get(rs.getInt(5))));
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            PlayerRoutes.LOGGER.error("Failed to load points of session {}: {}", sessionId, e.getMessage());
+        }
+        return points;
+    }
+
+    @Override
+    public SessionSummary getSessionSummary(String sessionId) {
+        PlayerSession live = liveSessions.get(sessionId);
+        if (live != null) {
+            synchronized (live) {
+                return SessionSummary.of(live);
+            }
+        }
+        List<SessionSummary> rows = querySummaries("WHERE session_id = ?", sessionId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private SessionSummary readSummary(ResultSet rs) throws SQLException {
+        long endedAt = rs.getLong(5);
+        Long ended = rs.wasNull() ? null : endedAt;
+
+        RoutePoint lastPoint = null;
+        long lastT = rs.getLong(10);
+        if (!rs.wasNull()) {
+            lastPoint = new RoutePoint(lastT, rs.getDouble(11), rs.getDouble(12), rs.getDouble(13),
+                    dimensionNames.get(rs.getInt(14)));
+        }
+
+        return new SessionSummary(
+                rs.getString(1),
+                rs.getObject(2, UUID.class),
+                rs.getString(3),
+                rs.getLong(4),
+                ended,
+                rs.getBoolean(6),
+                rs.getLong(7),
+                new SessionStats(rs.getInt(8), rs.getDouble(9)),
+                lastPoint,
+                rs.getInt(15)
+        );
+    }
+
+    private synchronized List<SessionSummary> querySummaries(String where, Object... params) {
+        List<SessionSummary> result = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT " + SUMMARY_COLUMNS + " FROM sessions " + where)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.add(readSummary(rs));
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            PlayerRoutes.LOGGER.error("Session query failed: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    private synchronized long queryCount(String sql, Object... params) {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                long count = rs.next() ? rs.getLong(1) : 0;
+                connection.commit();
+                return count;
+            }
+        } catch (SQLException e) {
+            rollback();
+            PlayerRoutes.LOGGER.error("Session count failed: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByPlayer(UUID playerUuid, int limit, int offset) {
+        return querySummaries("WHERE player_uuid = ? ORDER BY started_at DESC, session_id LIMIT ? OFFSET ?",
+                playerUuid, limit, offset);
+    }
+
+    @Override
+    public List<SessionSummary> getSessionsByTimeRange(long startTime, long endTime, int limit, int offset) {
+        return querySummaries("WHERE started_at BETWEEN ? AND ? " +
+                        "ORDER BY started_at DESC, session_id LIMIT ? OFFSET ?",
+                startTime, endTime, limit, offset);
+    }
+
+    /**
+     * Newest-first page of sessions with at least one stored point inside the given XZ box.
+     */
+    public List<SessionSummary> getSessionsInArea(String dimension, double minX, double minZ,
+                                                  double maxX, double maxZ, int limit, int offset) {
+        Integer dimId;
+        synchronized (this) {
+            dimId = dimensionIds.get(dimension);
+        }
+        if (dimId == null) {
+            return List.of();
+        }
+        return querySummaries("WHERE session_id IN (SELECT DISTINCT session_id FROM points " +
+                        "WHERE dim_id = ? AND x BETWEEN ? AND ? AND z BETWEEN ? AND ?) " +
+                        "ORDER BY started_at DESC, session_id LIMIT ? OFFSET ?",
+                dimId, minX, maxX, minZ, maxZ, limit, offset);
+    }
+
+    @Override
+    public List<PlayerSession> loadActiveSessions() {
+        List<PlayerSession> result = new ArrayList<>();
+        for (SessionSummary summary : querySummaries("WHERE active = TRUE")) {
+            PlayerSession session = getSession(summary.sessionId());
+            if (session != null) {
+                result.add(session);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<SessionSummary> getAllSessions(int limit, int offset) {
+        return querySummaries("ORDER BY started_at DESC, session_id LIMIT ? OFFSET ?", limit, offset);
+    }
+
+    @Override
+    public long countSessions() {
+        return queryCount("SELECT COUNT(*) FROM sessions");
+    }
+
+    @Override
+    public long countSessionsByPlayer(UUID playerUuid) {
+        return queryCount("SELECT COUNT(*) FROM sessions WHERE player_uuid = ?", playerUuid);
+    }
+
+    public boolean containsSession(String sessionId) {
+        return queryCount("SELECT COUNT(*) FROM sessions WHERE session_id = ?", sessionId) > 0;
+    }
+
+    @Override
+    public void registerMetrics(MetricsRegistry registry) {
+        pathCache.registerMetrics(registry);
+    }
+
+    @Override
+    public synchronized void close() {
+        // Points are appended on every save, so only live sessions can hold unwritten data
+        for (PlayerSession session : liveSessions.values()) {
+            writeSession(session);
+        }
+        liveSessions.clear();
+        pathCache.clear();
+
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            PlayerRoutes.LOGGER.error("Failed to close session database: {}", e.getMessage());
+        }
+    }
+}
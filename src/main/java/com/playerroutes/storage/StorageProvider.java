@@ -1,7 +1,11 @@
 package com.playerroutes.storage;
 
 import com.playerroutes.data.PlayerSession;
+import com.playerroutes.data.RoutePoint;
+import com.playerroutes.data.SessionSummary;
+import com.playerroutes.metrics.MetricsRegistry;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,17 +14,47 @@ public interface StorageProvider {
 
     PlayerSession getSession(String sessionId);
 
-    List<PlayerSession> getSessionsByPlayer(UUID playerUuid, int limit, int offset);
-
-    List<PlayerSession> getSessionsByTimeRange(long startTime, long endTime, int limit, int offset);
+    /**
+     * Up to {@code limit} points of a session in recording order, starting at index {@code from}.
+     * Lets callers page through a long path without holding all of it.
+     */
+    default List<RoutePoint> getSessionPoints(String sessionId, long from, int limit) {
+        PlayerSession session = getSession(sessionId);
+        if (session == null) {
+            return List.of();
+        }
+        synchronized (session) {
+            List<RoutePoint> path = session.getPath();
+            int start = (int) Math.min(from, path.size());
+            return new ArrayList<>(path.subList(start, Math.min(path.size(), start + limit)));
+        }
+    }
+
+    /**
+     * Path-less view of one session, or null if it is unknown.
+     */
+    default SessionSummary getSessionSummary(String sessionId) {
+        PlayerSession session = getSession(sessionId);
+        return session != null ? SessionSummary.of(session) : null;
+    }
+
+    List<SessionSummary> getSessionsByPlayer(UUID playerUuid, int limit, int offset);
+
+    List<SessionSummary> getSessionsByTimeRange(long startTime, long endTime, int limit, int offset);
 
     List<PlayerSession> loadActiveSessions();
 
-    List<PlayerSession> getAllSessions(int limit, int offset);
+    List<SessionSummary> getAllSessions(int limit, int offset);
 
     long countSessions();
 
     long countSessionsByPlayer(UUID playerUuid);
 
+    /**
+     * Exports this provider's metrics, and those of any provider it wraps.
+     */
+    default void registerMetrics(MetricsRegistry registry) {
+    }
+
     void close();
 }
@@ -0,0 +1,193 @@
+package com.playerroutes.network;
+
+import com.google.gson.JsonObject;
+import com.playerroutes.data.RoutePoint;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Decodes records the way a {@code playerroutes.bin.v1} client does, so any change to the wire
+ * format shows up here.
+ */
+class BinaryProtocolTest {
+    private static final String OVERWORLD = "minecraft:overworld";
+
+    @Test
+    void routePointRoundTrip() {
+        BinaryProtocol protocol = new BinaryProtocol();
+        protocol.registerDimension(OVERWORLD);
+        int handle = protocol.handle("sess_a");
+
+        long startedAt = 1_703_700_000_000L;
+        RoutePoint point = new RoutePoint(startedAt + 12_345, 1234.56, 64.0, -987.64, OVERWORLD);
+        Reader reader = new Reader(protocol.routePoint(42, handle, startedAt, point, 37, 6000, true));
+
+        assertEquals(BinaryProtocol.TAG_ROUTE_POINT, reader.readByte());
+        assertEquals(42, reader.readVarLong());
+        assertEquals(handle, reader.readVarLong());
+        assertEquals(12_345, reader.readSignedVarLong());
+        assertEquals(12_346, reader.readSignedVarLong());
+        assertEquals(640, reader.readSignedVarLong());
+        assertEquals(-9_876, reader.readSignedVarLong());
+        assertEquals(0, reader.readVarLong());
+        assertEquals(37, reader.readVarLong());
+        assertEquals(6000, reader.readVarLong());
+        assertEquals(1, reader.readByte());
+        assertTrue(reader.atEnd());
+    }
+
+    @Test
+    void signedValuesKeepSignAndMagnitude() {
+        BinaryProtocol protocol = new BinaryProtocol();
+        protocol.registerDimension(OVERWORLD);
+
+        long[] deltas = {0, 1, -1, 63, -64, 64, -65, 1L << 40, -(1L << 40), Long.MAX_VALUE, -Long.MAX_VALUE};
+        for (long delta : deltas) {
+            // Timestamps before startedAt (clock adjustments) give negative deltas
+            RoutePoint point = new RoutePoint(delta, -30_000_000.0, -64.0, 29_999_999.9, OVERWORLD);
+            Reader reader = new Reader(protocol.routePoint(1, 1, 0, point, 0, 0, false));
+            reader.readByte();
+            reader.readVarLong();
+            reader.readVarLong();
+            assertEquals(delta, reader.readSignedVarLong());
+            assertEquals(-300_000_000, reader.readSignedVarLong());
+            assertEquals(-640, reader.readSignedVarLong());
+            assertEquals(299_999_999, reader.readSignedVarLong());
+        }
+    }
+
+    @Test
+    void largeUnsignedValuesAndClampedPing() {
+        BinaryProtocol protocol = new BinaryProtocol();
+        RoutePoint point = new RoutePoint(0, 0, 0, 0, OVERWORLD);
+        long seq = (1L << 56) + 3;
+        Reader reader = new Reader(protocol.routePoint(seq, 300, 0, point, -5, 23_999, false));
+
+        reader.readByte();
+        assertEquals(seq, reader.readVarLong());
+        assertEquals(300, reader.readVarLong());
+        reader.readSignedVarLong();
+        reader.readSignedVarLong();
+        reader.readSignedVarLong();
+        reader.readSignedVarLong();
+        // Not registered: falls back to id 0
+        assertEquals(0, reader.readVarLong());
+        assertEquals(0, reader.readVarLong());
+        assertEquals(23_999, reader.readVarLong());
+        assertEquals(0, reader.readByte());
+        assertTrue(reader.atEnd());
+    }
+
+    @Test
+    void handlesAreStablePerSessionAndNotReused() {
+        BinaryProtocol protocol = new BinaryProtocol();
+        int a = protocol.handle("sess_a");
+        int b = protocol.handle("sess_b");
+
+        assertEquals(1, a);
+        assertEquals(2, b);
+        assertEquals(a, protocol.handle("sess_a"));
+
+        protocol.release("sess_a");
+        int again = protocol.handle("sess_a");
+        assertNotEquals(a, again);
+        assertNotEquals(b, again);
+    }
+
+    @Test
+    void dimensionRecordsAreSentOncePerName() {
+        BinaryProtocol protocol = new BinaryProtocol();
+        String modded = "modded:ünder_world";
+
+        Reader first = new Reader(protocol.registerDimension(OVERWORLD));
+        assertEquals(BinaryProtocol.TAG_DIMENSION, first.readByte());
+        assertEquals(0, first.readVarLong());
+        assertEquals(OVERWORLD, first.readString());
+        assertTrue(first.atEnd());
+
+        assertNull(protocol.registerDimension(OVERWORLD));
+
+        Reader second = new Reader(protocol.registerDimension(modded));
+        assertEquals(BinaryProtocol.TAG_DIMENSION, second.readByte());
+        assertEquals(1, second.readVarLong());
+        assertEquals(modded, second.readString());
+        assertTrue(second.atEnd());
+
+        JsonObject table = protocol.dimensionsJson();
+        assertEquals(OVERWORLD, table.get("0").getAsString());
+        assertEquals(modded, table.get("1").getAsString());
+
+        Reader point = new Reader(protocol.routePoint(1, 1, 0, new RoutePoint(0, 0, 0, 0, modded), 0, 0, true));
+        point.readByte();
+        point.readVarLong();
+        point.readVarLong();
+        for (int i = 0; i < 4; i++) {
+            point.readSignedVarLong();
+        }
+        assertEquals(1, point.readVarLong());
+    }
+
+    @Test
+    void timeUpdateRoundTrip() {
+        BinaryProtocol protocol = new BinaryProtocol();
+        Reader reader = new Reader(protocol.timeUpdate(1L << 35, 18_000));
+
+        assertEquals(BinaryProtocol.TAG_TIME_UPDATE, reader.readByte());
+        assertEquals(1L << 35, reader.readVarLong());
+        assertEquals(18_000, reader.readVarLong());
+        assertTrue(reader.atEnd());
+    }
+
+    @Test
+    void recordsAreReadOnly() {
+        BinaryProtocol protocol = new BinaryProtocol();
+        // Shared across connections, so nobody may write to them
+        assertTrue(protocol.timeUpdate(1, 0).isReadOnly());
+        assertTrue(protocol.registerDimension(OVERWORLD).isReadOnly());
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buf;
+
+        Reader(ByteBuffer buf) {
+            this.buf = buf.duplicate();
+        }
+
+        int readByte() {
+            return buf.get();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buf.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        long readSignedVarLong() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() {
+            byte[] bytes = new byte[(int) readVarLong()];
+            buf.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        boolean atEnd() {
+            return !buf.hasRemaining();
+        }
+    }
+}
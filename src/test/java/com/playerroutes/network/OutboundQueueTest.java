@@ -0,0 +1,183 @@
+package com.playerroutes.network;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.handshake.ClientHandshake;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OutboundQueueTest {
+    private static final int LIMIT = 2;
+
+    private final TestServer server = new TestServer();
+    private final StalledConnection conn = new StalledConnection(server);
+    private final OutboundMetrics metrics = new OutboundMetrics();
+
+    @Test
+    void conflationKeepsLatestPerKey() {
+        OutboundQueue queue = new OutboundQueue(server, conn, LIMIT, 60_000, metrics);
+        fillSocket(queue);
+
+        queue.offer(SharedMessage.text("a1"), OutboundQueue.Kind.CONFLATABLE, "sess_a");
+        queue.offer(SharedMessage.text("b1"), OutboundQueue.Kind.CONFLATABLE, "sess_b");
+        queue.offer(SharedMessage.text("a2"), OutboundQueue.Kind.CONFLATABLE, "sess_a");
+
+        OutboundQueue.Stats stats = queue.getStats();
+        assertEquals(2, stats.held());
+        assertEquals(1, stats.conflated());
+        assertEquals(1, metrics.conflated.sum());
+
+        conn.outQueue.clear();
+        queue.drain();
+        // The replacement moves to the tail, so the client still sees points in publish order
+        assertEquals(List.of("fill0", "fill1", "b1", "a2"), conn.sent);
+        assertEquals(0, queue.getStats().held());
+        assertEquals(0, conn.closeCode);
+    }
+
+    @Test
+    void dropsDroppableFirstUnderPressure() {
+        OutboundQueue queue = new OutboundQueue(server, conn, LIMIT, 60_000, metrics);
+        fillSocket(queue);
+
+        queue.offer(SharedMessage.text("time1"), OutboundQueue.Kind.DROPPABLE, null);
+        queue.offer(SharedMessage.text("init"), OutboundQueue.Kind.RELIABLE, null);
+        queue.offer(SharedMessage.text("point"), OutboundQueue.Kind.CONFLATABLE, "sess_a");
+        queue.offer(SharedMessage.text("time2"), OutboundQueue.Kind.DROPPABLE, null);
+
+        OutboundQueue.Stats stats = queue.getStats();
+        assertEquals(2, stats.held());
+        assertEquals(2, stats.dropped());
+        assertEquals(0, stats.conflated());
+
+        conn.outQueue.clear();
+        queue.drain();
+        assertEquals(List.of("fill0", "fill1", "init", "point"), conn.sent);
+
+        // Once the client catches up, droppable messages are sent again
+        conn.outQueue.clear();
+        queue.offer(SharedMessage.text("time3"), OutboundQueue.Kind.DROPPABLE, null);
+        assertEquals("time3", conn.sent.get(conn.sent.size() - 1));
+        assertEquals(2, metrics.dropped.sum());
+    }
+
+    @Test
+    void reliableOverflowDisconnects() {
+        OutboundQueue queue = new OutboundQueue(server, conn, LIMIT, 60_000, metrics);
+        fillSocket(queue);
+
+        for (int i = 0; i < LIMIT; i++) {
+            queue.offer(SharedMessage.text("reliable" + i), OutboundQueue.Kind.RELIABLE, null);
+        }
+        assertEquals(0, conn.closeCode);
+        assertEquals(LIMIT, queue.getStats().held());
+
+        queue.offer(SharedMessage.text("overflow"), OutboundQueue.Kind.RELIABLE, null);
+        assertEquals(1008, conn.closeCode);
+        assertEquals("outbound queue full", conn.closeReason);
+        assertEquals(0, queue.getStats().dropped());
+        assertEquals(1, metrics.slowDisconnects.sum());
+
+        // Nothing more is sent after the disconnect
+        conn.outQueue.clear();
+        queue.offer(SharedMessage.text("late"), OutboundQueue.Kind.RELIABLE, null);
+        queue.drain();
+        assertEquals(List.of("fill0", "fill1"), conn.sent);
+    }
+
+    @Test
+    void disconnectsClientCongestedPastTimeout() throws Exception {
+        OutboundQueue queue = new OutboundQueue(server, conn, LIMIT, 50, metrics);
+        fillSocket(queue);
+
+        queue.offer(SharedMessage.text("init"), OutboundQueue.Kind.RELIABLE, null);
+        assertEquals(0, conn.closeCode);
+
+        Thread.sleep(100);
+        queue.drain();
+        assertEquals(1008, conn.closeCode);
+        assertEquals("client too slow", conn.closeReason);
+        assertEquals(List.of("fill0", "fill1"), conn.sent);
+    }
+
+    private void fillSocket(OutboundQueue queue) {
+        for (int i = 0; i < LIMIT; i++) {
+            queue.offer(SharedMessage.text("fill" + i), OutboundQueue.Kind.RELIABLE, null);
+        }
+        assertEquals(LIMIT, conn.outQueue.size());
+        assertEquals(0, queue.getStats().held());
+    }
+
+    /**
+     * Open connection whose write queue is never flushed, like a client that stopped reading.
+     * It has no negotiated draft, so messages arrive through {@link #send(String)} rather than
+     * as shared frames.
+     */
+    private static class StalledConnection extends WebSocketImpl {
+        final List<String> sent = new ArrayList<>();
+        int closeCode;
+        String closeReason;
+
+        StalledConnection(TestServer server) {
+            super(server, new Draft_6455());
+        }
+
+        @Override
+        public boolean isOpen() {
+            return closeCode == 0;
+        }
+
+        @Override
+        public Draft getDraft() {
+            return null;
+        }
+
+        @Override
+        public void send(String text) {
+            sent.add(text);
+            outQueue.add(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public void closeConnection(int code, String message) {
+            closeCode = code;
+            closeReason = message;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteSocketAddress() {
+            return null;
+        }
+    }
+
+    // Never started; only used as the connection's listener
+    private static class TestServer extends org.java_websocket.server.WebSocketServer {
+        TestServer() {
+            super(new InetSocketAddress("127.0.0.1", 0));
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {}
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {}
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {}
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {}
+
+        @Override
+        public void onStart() {}
+    }
+}
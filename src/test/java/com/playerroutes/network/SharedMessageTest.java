@@ -0,0 +1,119 @@
+package com.playerroutes.network;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshake;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedMessageTest {
+
+    @Test
+    void sharesBinaryFrameOverDeflateConnections() throws Exception {
+        CompressionMetrics metrics = new CompressionMetrics();
+        TestServer server = new TestServer(metrics);
+        server.start();
+        server.started.get(5, TimeUnit.SECONDS);
+
+        List<TestClient> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                TestClient client = new TestClient(new URI("ws://127.0.0.1:" + server.getPort()));
+                assertTrue(client.connectBlocking(5, TimeUnit.SECONDS));
+                clients.add(client);
+            }
+
+            // Read-only, like the records built by BinaryProtocol
+            byte[] payload = {1, 2, 3, 4, 5, 6, 7, 8};
+            SharedMessage message = SharedMessage.binary(ByteBuffer.wrap(payload).asReadOnlyBuffer());
+            for (WebSocket conn : server.getConnections()) {
+                assertTrue(message.sendTo(server, conn));
+            }
+
+            for (TestClient client : clients) {
+                ByteBuffer received = client.received.get(5, TimeUnit.SECONDS);
+                byte[] bytes = new byte[received.remaining()];
+                received.get(bytes);
+                assertArrayEquals(payload, bytes);
+            }
+            // Framed once for both connections
+            assertEquals(1, metrics.getStats().skippedFrames());
+            assertEquals(0, metrics.getStats().compressedFrames());
+        } finally {
+            for (TestClient client : clients) {
+                client.closeBlocking();
+            }
+            server.stop(1000);
+        }
+    }
+
+    private static class TestServer extends org.java_websocket.server.WebSocketServer {
+        final CompletableFuture<Void> started = new CompletableFuture<>();
+
+        TestServer(CompressionMetrics metrics) {
+            super(new InetSocketAddress("127.0.0.1", 0),
+                    List.of(new Draft_6455(new MeteredDeflateExtension(6, 1024, metrics))));
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {}
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {}
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {}
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+            started.completeExceptionally(ex);
+        }
+
+        @Override
+        public void onStart() {
+            started.complete(null);
+        }
+    }
+
+    private static class TestClient extends WebSocketClient {
+        final CompletableFuture<ByteBuffer> received = new CompletableFuture<>();
+
+        TestClient(URI uri) {
+            // Offers permessage-deflate, as browsers do
+            super(uri, new Draft_6455(new PerMessageDeflateExtension()));
+        }
+
+        @Override
+        public void onOpen(ServerHandshake handshake) {}
+
+        @Override
+        public void onMessage(String message) {}
+
+        @Override
+        public void onMessage(ByteBuffer bytes) {
+            received.complete(bytes);
+        }
+
+        @Override
+        public void onClose(int code, String reason, boolean remote) {}
+
+        @Override
+        public void onError(Exception ex) {
+            received.completeExceptionally(ex);
+        }
+    }
+}